@@ -2,15 +2,24 @@ package com.saicone.settings.source;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.saicone.settings.SettingsSource;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.util.StringPool;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -24,6 +33,9 @@ public class GsonSettingsSource implements SettingsSource {
     private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
 
     private final Gson gson;
+    private StringPool stringPool;
+    // Gson instance that deduplicates strings while reading
+    private Gson pooledGson;
 
     /**
      * Constructs a gson settings source with default options.<br>
@@ -52,9 +64,20 @@ public class GsonSettingsSource implements SettingsSource {
         return gson;
     }
 
+    @Override
+    public @Nullable StringPool getStringPool() {
+        return stringPool;
+    }
+
+    @Override
+    public void setStringPool(@Nullable StringPool stringPool) {
+        this.stringPool = stringPool;
+        this.pooledGson = stringPool == null ? null : gson.newBuilder().registerTypeAdapter(MAP_TYPE, new PooledAdapter()).create();
+    }
+
     @Override
     public <T extends MapNode> T read(@NotNull Reader reader, @NotNull T parent) throws IOException {
-        parent.merge((Map<?, ?>) gson.fromJson(reader, MAP_TYPE));
+        parent.merge((Map<?, ?>) (pooledGson != null ? pooledGson : gson).fromJson(reader, MAP_TYPE));
         return parent;
     }
 
@@ -62,4 +85,59 @@ public class GsonSettingsSource implements SettingsSource {
     public void write(@NotNull Writer writer, @NotNull MapNode parent) throws IOException {
         gson.toJson(parent.asLiteralObject(), writer);
     }
+
+    /**
+     * Type adapter that read json objects with deduplicated keys and string values,
+     * so the strings are pooled while parsing without copying the parsed values.<br>
+     * Any other value is read by the gson object adapter, so the number policy is kept.
+     */
+    private final class PooledAdapter extends TypeAdapter<Map<String, Object>> {
+
+        private final TypeAdapter<Object> objectAdapter = gson.getAdapter(Object.class);
+
+        @Override
+        public void write(JsonWriter out, Map<String, Object> value) throws IOException {
+            objectAdapter.write(out, value);
+        }
+
+        @Override
+        public Map<String, Object> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return readMap(in);
+        }
+
+        @NotNull
+        private Map<String, Object> readMap(@NotNull JsonReader in) throws IOException {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                map.put(deduplicate(in.nextName()), readValue(in));
+            }
+            in.endObject();
+            return map;
+        }
+
+        @Nullable
+        private Object readValue(@NotNull JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case BEGIN_OBJECT:
+                    return readMap(in);
+                case BEGIN_ARRAY:
+                    final List<Object> list = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        list.add(readValue(in));
+                    }
+                    in.endArray();
+                    return list;
+                case STRING:
+                    return deduplicate(in.nextString());
+                default:
+                    return objectAdapter.read(in);
+            }
+        }
+    }
 }
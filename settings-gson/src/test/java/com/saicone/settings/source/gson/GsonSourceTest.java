@@ -6,9 +6,12 @@ import com.saicone.settings.Settings;
 import com.saicone.settings.SettingsData;
 import com.saicone.settings.data.DataType;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.util.StringPool;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GsonSourceTest {
 
@@ -30,4 +33,18 @@ public class GsonSourceTest {
         Settings actual = data.load();
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testStringPool() {
+        StringPool pool = new StringPool();
+        Settings first = SettingsData.of(DataType.FILE_RESOURCE, "/example.json").stringPool(pool).load();
+        Settings second = SettingsData.of(DataType.FILE_RESOURCE, "/example.json").stringPool(pool).load();
+        assertEquals(first, second);
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        assertSame(first.get("key4").asMapNode().keySet().iterator().next(), second.get("key4").asMapNode().keySet().iterator().next());
+        assertSame(first.get("key1").getValue(), second.get("key1").getValue());
+        assertSame(first.get("key4", "sub2").asListNode().get(0).getValue(), second.get("key4", "sub2").asListNode().get(0).getValue());
+        assertTrue(pool.getSavedStrings() >= 4);
+        assertTrue(pool.getSavedBytes() > 0);
+    }
 }
@@ -5,6 +5,7 @@ import com.saicone.settings.SettingsSource;
 import com.saicone.settings.node.ListNode;
 import com.saicone.settings.node.MapNode;
 import com.saicone.settings.node.NodeKey;
+import com.saicone.settings.util.StringPool;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigList;
@@ -39,6 +40,9 @@ public class HoconSettingsSource implements SettingsSource {
     private final ConfigRenderOptions renderOptions;
     private final ConfigResolveOptions resolveOptions;
 
+    private StringPool stringPool;
+    private boolean readComments = true;
+
     /**
      * Constructs a hocon settings source with default options.<br>
      * This means any comment will be parsed.
@@ -100,6 +104,26 @@ public class HoconSettingsSource implements SettingsSource {
         return resolveOptions;
     }
 
+    @Override
+    public @Nullable StringPool getStringPool() {
+        return stringPool;
+    }
+
+    @Override
+    public void setStringPool(@Nullable StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    public boolean isReadComments() {
+        return readComments;
+    }
+
+    @Override
+    public void setReadComments(boolean readComments) {
+        this.readComments = readComments;
+    }
+
     @Override
     public <T extends MapNode> T read(@NotNull Reader reader, @NotNull T parent) throws IOException {
         final Config config = ConfigFactory.parseReader(reader, parseOptions);
@@ -146,7 +170,7 @@ public class HoconSettingsSource implements SettingsSource {
                 return readList(new ListNode(parent, key), (ConfigList) value, null);
             }
         } else {
-            final SettingsNode node = NodeKey.of(parent, key, value.unwrapped());
+            final SettingsNode node = NodeKey.of(parent, key, deduplicate(value.unwrapped()));
             if (resolved != null) {
                 node.setValue(node.getValue());
                 node.merge(readValue(null, null, resolved, null));
@@ -172,12 +196,14 @@ public class HoconSettingsSource implements SettingsSource {
 
         final boolean ignore = resolved == null;
         for (Map.Entry<String, ConfigValue> entry : config.entrySet()) {
-            final String key = entry.getKey();
+            final String key = deduplicate(entry.getKey());
             final SettingsNode node = readValue(parent, key, entry.getValue(), ignore ? null : resolved.get(key));
 
-            final List<String> comments = entry.getValue().origin().comments();
-            if (comments != null && !comments.isEmpty()) {
-                node.setTopComment(readComment(comments));
+            if (readComments) {
+                final List<String> comments = entry.getValue().origin().comments();
+                if (comments != null && !comments.isEmpty()) {
+                    node.setTopComment(readComment(comments));
+                }
             }
 
             parent.put(key, node);
@@ -202,9 +228,11 @@ public class HoconSettingsSource implements SettingsSource {
             final ConfigValue value = list.get(i);
             final SettingsNode child = readValue(null, null, value, ignore ? null : resolved.get(i));
 
-            final List<String> comments = value.origin().comments();
-            if (comments != null && !comments.isEmpty()) {
-                child.setTopComment(readComment(comments));
+            if (readComments) {
+                final List<String> comments = value.origin().comments();
+                if (comments != null && !comments.isEmpty()) {
+                    child.setTopComment(readComment(comments));
+                }
             }
 
             node.add(child);
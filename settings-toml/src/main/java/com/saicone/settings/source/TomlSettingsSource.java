@@ -8,6 +8,7 @@ import com.saicone.settings.SettingsSource;
 import com.saicone.settings.node.ListNode;
 import com.saicone.settings.node.MapNode;
 import com.saicone.settings.node.NodeKey;
+import com.saicone.settings.util.StringPool;
 import com.saicone.types.AnyObject;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -30,6 +31,8 @@ import java.util.Map;
 public class TomlSettingsSource implements SettingsSource {
 
     private TomlFormat format;
+    private StringPool stringPool;
+    private boolean readComments = true;
 
     /**
      * Constructs a toml settings source with default options.<br>
@@ -67,6 +70,26 @@ public class TomlSettingsSource implements SettingsSource {
         this.format = format;
     }
 
+    @Override
+    public @Nullable StringPool getStringPool() {
+        return stringPool;
+    }
+
+    @Override
+    public void setStringPool(@Nullable StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    public boolean isReadComments() {
+        return readComments;
+    }
+
+    @Override
+    public void setReadComments(boolean readComments) {
+        this.readComments = readComments;
+    }
+
     @Override
     public <T extends MapNode> T read(@NotNull Reader reader, @NotNull T parent) throws IOException {
         final CommentedConfig config = format.createParser().parse(reader);
@@ -92,7 +115,7 @@ public class TomlSettingsSource implements SettingsSource {
             }
             return list;
         } else {
-            return NodeKey.of(parent, key, value);
+            return NodeKey.of(parent, key, deduplicate(value));
         }
     }
 
@@ -111,15 +134,16 @@ public class TomlSettingsSource implements SettingsSource {
             return parent;
         }
         for (Config.Entry entry : config.entrySet()) {
-            final SettingsNode node = readValue(parent, entry.getKey(), entry.getValue());
-            if (config instanceof CommentedConfig) {
+            final String key = deduplicate(entry.getKey());
+            final SettingsNode node = readValue(parent, key, entry.getValue());
+            if (readComments && config instanceof CommentedConfig) {
                 final String comment = ((CommentedConfig) config).getComment(entry.getKey());
                 if (comment != null) {
                     node.setTopComment(readComment(Arrays.asList(comment.split("\n"))));
                 }
             }
             if (parent != null) {
-                parent.put(entry.getKey(), node);
+                parent.put(key, node);
             }
         }
         return parent;
@@ -4,11 +4,18 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.saicone.settings.Settings;
 import com.saicone.settings.SettingsData;
+import com.saicone.settings.SettingsLoader;
 import com.saicone.settings.data.DataType;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.util.StringPool;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TomlSourceTest {
 
@@ -33,4 +40,31 @@ public class TomlSourceTest {
         assertEquals(ImmutableList.of("Key #1 comment"), actual.get("key1").getTopComment());
         assertEquals(ImmutableList.of("Comment", "Second comment"), actual.get("key3").getTopComment());
     }
+
+    @Test
+    public void testDataLoadWithoutComments() {
+        SettingsData<Settings> data = SettingsData.of(DataType.FILE_RESOURCE, "/example.toml").readComments(false);
+        Settings actual = SettingsLoader.empty().load(data);
+        assertEquals("test", actual.get("key1").getValue());
+        assertEquals(ImmutableList.of("value1", "value2"), actual.get("key4", "sub2").asLiteralObject());
+
+        assertNull(actual.get("key1").getTopComment());
+        assertNull(actual.get("key3").getTopComment());
+        assertFalse(data.isSaveable());
+        assertThrows(IllegalStateException.class, data::save);
+    }
+
+    @Test
+    public void testStringPool() {
+        StringPool pool = new StringPool();
+        Settings first = SettingsData.of(DataType.FILE_RESOURCE, "/example.toml").stringPool(pool).load();
+        Settings second = SettingsData.of(DataType.FILE_RESOURCE, "/example.toml").stringPool(pool).load();
+        assertEquals(first, second);
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        assertSame(first.get("key4").asMapNode().keySet().iterator().next(), second.get("key4").asMapNode().keySet().iterator().next());
+        assertSame(first.get("key1").getValue(), second.get("key1").getValue());
+        assertSame(first.get("key4", "sub2").asListNode().get(0).getValue(), second.get("key4", "sub2").asListNode().get(0).getValue());
+        assertTrue(pool.getSavedStrings() >= 4);
+        assertTrue(pool.getSavedBytes() > 0);
+    }
 }
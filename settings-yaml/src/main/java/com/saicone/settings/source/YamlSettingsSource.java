@@ -5,6 +5,7 @@ import com.saicone.settings.SettingsSource;
 import com.saicone.settings.node.ListNode;
 import com.saicone.settings.node.MapNode;
 import com.saicone.settings.node.NodeKey;
+import com.saicone.settings.util.StringPool;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -13,6 +14,7 @@ import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.comments.CommentLine;
 import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.constructor.Constructor;
 import org.yaml.snakeyaml.nodes.AnchorNode;
 import org.yaml.snakeyaml.nodes.MappingNode;
@@ -21,6 +23,8 @@ import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.representer.Representer;
 
 import java.io.IOException;
@@ -39,6 +43,8 @@ import java.util.Map;
 public class YamlSettingsSource implements SettingsSource {
 
     private PublicYaml yaml;
+    private StringPool stringPool;
+    private boolean readComments = true;
 
     /**
      * Constructs a yaml settings source with default options.<br>
@@ -91,9 +97,29 @@ public class YamlSettingsSource implements SettingsSource {
         this.yaml = yaml;
     }
 
+    @Override
+    public @Nullable StringPool getStringPool() {
+        return stringPool;
+    }
+
+    @Override
+    public void setStringPool(@Nullable StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    @Override
+    public boolean isReadComments() {
+        return readComments;
+    }
+
+    @Override
+    public void setReadComments(boolean readComments) {
+        this.readComments = readComments;
+    }
+
     @Override
     public <T extends MapNode> T read(@NotNull Reader reader, @NotNull T parent) throws IOException {
-        return readMapNode(parent, (MappingNode) realNode(yaml.compose(reader)));
+        return readMapNode(parent, (MappingNode) realNode(readComments ? yaml.compose(reader) : yaml.composeWithoutComments(reader)));
     }
 
     /**
@@ -115,13 +141,15 @@ public class YamlSettingsSource implements SettingsSource {
             }
             for (Node value : ((SequenceNode) node).getValue()) {
                 final SettingsNode child = readNode(null, null, value);
-                child.setTopComment(readCommentLines(value.getBlockComments()));
-                child.setSideComment(readCommentLines(value.getInLineComments()));
+                if (readComments) {
+                    child.setTopComment(readCommentLines(value.getBlockComments()));
+                    child.setSideComment(readCommentLines(value.getInLineComments()));
+                }
                 list.add(child);
             }
             return list;
         } else {
-            return NodeKey.of(parent, key, yaml.getConstructor().constructObject(node));
+            return NodeKey.of(parent, key, deduplicate(yaml.getConstructor().constructObject(node)));
         }
     }
 
@@ -145,15 +173,17 @@ public class YamlSettingsSource implements SettingsSource {
             final Node valueNode = realNode(tuple.getValueNode());
 
             // Read child node
-            final String key = keyNode.getValue();
+            final String key = deduplicate(keyNode.getValue());
             final SettingsNode child = readNode(parent, key, valueNode);
 
             // Read comments
-            child.setTopComment(readCommentLines(keyNode.getBlockComments()));
-            if (valueNode instanceof MappingNode || valueNode instanceof SequenceNode) {
-                child.setSideComment(readCommentLines(keyNode.getInLineComments()));
-            } else {
-                child.setSideComment(readCommentLines(valueNode.getInLineComments()));
+            if (readComments) {
+                child.setTopComment(readCommentLines(keyNode.getBlockComments()));
+                if (valueNode instanceof MappingNode || valueNode instanceof SequenceNode) {
+                    child.setSideComment(readCommentLines(keyNode.getInLineComments()));
+                } else {
+                    child.setSideComment(readCommentLines(valueNode.getInLineComments()));
+                }
             }
 
             // Save child node
@@ -298,6 +328,8 @@ public class YamlSettingsSource implements SettingsSource {
         private final PublicConstructor constructor;
         private final Representer representer;
 
+        private LoaderOptions uncommentedConfig;
+
         /**
          * Constructs a public yaml wrapped instance.
          *
@@ -331,6 +363,40 @@ public class YamlSettingsSource implements SettingsSource {
         public Representer getRepresenter() {
             return representer;
         }
+
+        /**
+         * Parse the first yaml document from provided reader without processing any comment.<br>
+         * Comments are skipped by the scanner itself, so no comment token is created.
+         *
+         * @param reader the reader with yaml data.
+         * @return       the root node, null if the reader doesn't have any document.
+         */
+        @Nullable
+        public Node composeWithoutComments(@NotNull Reader reader) {
+            if (!loadingConfig.isProcessComments()) {
+                return compose(reader);
+            }
+            if (uncommentedConfig == null) {
+                uncommentedConfig = copyOptions(loadingConfig).setProcessComments(false);
+            }
+            final Composer composer = new Composer(new ParserImpl(new StreamReader(reader), uncommentedConfig), resolver, uncommentedConfig);
+            constructor.setComposer(composer);
+            return composer.getSingleNode();
+        }
+
+        @NotNull
+        private static LoaderOptions copyOptions(@NotNull LoaderOptions options) {
+            final LoaderOptions copy = new LoaderOptions();
+            copy.setAllowDuplicateKeys(options.isAllowDuplicateKeys());
+            copy.setWrappedToRootException(options.isWrappedToRootException());
+            copy.setMaxAliasesForCollections(options.getMaxAliasesForCollections());
+            copy.setAllowRecursiveKeys(options.getAllowRecursiveKeys());
+            copy.setEnumCaseSensitive(options.isEnumCaseSensitive());
+            copy.setNestingDepthLimit(options.getNestingDepthLimit());
+            copy.setCodePointLimit(options.getCodePointLimit());
+            copy.setTagInspector(options.getTagInspector());
+            return copy;
+        }
     }
 
     /**
@@ -4,11 +4,29 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.saicone.settings.Settings;
 import com.saicone.settings.SettingsData;
+import com.saicone.settings.SettingsLoader;
+import com.saicone.settings.SettingsNode;
 import com.saicone.settings.data.DataType;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.update.SettingsUpdater;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import com.saicone.settings.util.StringPool;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class YamlSourceTest {
 
@@ -35,4 +53,120 @@ public class YamlSourceTest {
         assertEquals(ImmutableList.of("Side comment"), actual.get("key3").getSideComment());
         assertEquals(ImmutableList.of("List comment"), actual.get("key4", "sub2").getTopComment());
     }
+
+    @Test
+    public void testDataLoadWithoutComments() {
+        SettingsData<Settings> data = SettingsData.of(DataType.FILE_RESOURCE, "/example.yaml").readComments(false);
+        Settings actual = data.load();
+        assertEquals("test", actual.get("key1").getValue());
+        assertEquals(ImmutableList.of("value1", "value2"), actual.get("key4", "sub2").asLiteralObject());
+
+        assertNull(actual.get("key1").getTopComment());
+        assertNull(actual.get("key3").getSideComment());
+        assertNull(actual.get("key4", "sub2").getTopComment());
+        assertFalse(data.isSaveable());
+        assertThrows(IllegalStateException.class, data::save);
+
+        // The read mode used on load is kept until the next load
+        data.readComments(true);
+        assertFalse(data.isSaveable());
+        assertThrows(IllegalStateException.class, data::save);
+        data.load();
+        assertTrue(data.isSaveable());
+    }
+
+    @Test
+    public void testLoaderWithoutComments() {
+        SettingsData<Settings> data = SettingsData.of(DataType.FILE_RESOURCE, "/example.yaml").readComments(false);
+        Settings actual = SettingsLoader.empty().load(data);
+        assertNull(actual.get("key1").getTopComment());
+        // The loaded node keeps the read mode used by the data
+        assertSame(actual, data.getLoaded());
+        assertFalse(data.isSaveable());
+        assertThrows(IllegalStateException.class, data::save);
+
+        data.readComments(true);
+        SettingsLoader.empty().load(data);
+        assertTrue(data.isSaveable());
+        // Any other node is saveable
+        data.readComments(false).load();
+        assertFalse(data.isSaveable());
+        data.loaded(new Settings());
+        assertTrue(data.isSaveable());
+    }
+
+    @Test
+    public void testDataReload() {
+        SettingsData<Settings> data = SettingsData.of(DataType.FILE_RESOURCE, "/example.yaml");
+        Settings loaded = data.load();
+        SettingsNode previous = loaded.get("key3", "sub1");
+
+        assertSame(loaded, data.reload());
+        assertEquals("asd", loaded.get("key3", "sub1").getValue());
+        assertNotSame(previous, loaded.get("key3", "sub1"));
+        assertSame(loaded, loaded.get("key3").getParent());
+        assertEquals(ImmutableList.of("Key #1 comment"), loaded.get("key1").getTopComment());
+
+        // Last good tree is kept on failure
+        SettingsNode current = loaded.get("key3", "sub1");
+        assertThrows(IllegalStateException.class, () -> data.reload(node -> {
+            throw new IllegalStateException("Update failed");
+        }));
+        assertSame(current, loaded.get("key3", "sub1"));
+        assertEquals(4, loaded.size());
+    }
+
+    @Test
+    public void testReloadWithoutComments() throws IOException {
+        final File folder = Files.createTempDirectory("settings").toFile();
+        final File file = new File(folder, "example.yaml");
+        try (InputStream in = getClass().getResourceAsStream("/example.yaml")) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        final SettingsLoader loader = new SettingsLoader(new SettingsUpdater() {
+            @Override
+            public boolean update(@NotNull MapNode base, @Nullable MapNode provider) {
+                base.put("key5", 5);
+                return true;
+            }
+        });
+        try {
+            SettingsData<Settings> data = SettingsData.of(DataType.FILE, "example.yaml").parentFolder(folder);
+            data.load();
+            assertTrue(data.isSaveable());
+
+            // The updated node is not saved, it was read without comments
+            data.readComments(false);
+            Settings loaded = loader.reload(data);
+            assertEquals(5, loaded.get("key5").getValue());
+            assertFalse(data.isSaveable());
+            String content = new String(Files.readAllBytes(file.toPath()));
+            assertTrue(content.contains("# Key #1 comment"));
+            assertFalse(content.contains("key5"));
+
+            data.readComments(true);
+            loader.reload(data);
+            assertTrue(data.isSaveable());
+            content = new String(Files.readAllBytes(file.toPath()));
+            assertTrue(content.contains("# Key #1 comment"));
+            assertTrue(content.contains("key5"));
+        } finally {
+            file.delete();
+            folder.delete();
+        }
+    }
+
+    @Test
+    public void testStringPool() {
+        StringPool pool = new StringPool();
+        Settings first = SettingsData.of(DataType.FILE_RESOURCE, "/example.yaml").stringPool(pool).load();
+        Settings second = SettingsData.of(DataType.FILE_RESOURCE, "/example.yaml").stringPool(pool).load();
+        assertEquals(first, second);
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+        assertSame(first.get("key4").asMapNode().keySet().iterator().next(), second.get("key4").asMapNode().keySet().iterator().next());
+        assertSame(first.get("key1").getValue(), second.get("key1").getValue());
+        assertSame(first.get("key4", "sub2").asListNode().get(0).getValue(), second.get("key4", "sub2").asListNode().get(0).getValue());
+        assertTrue(pool.getSavedStrings() >= 4);
+        assertTrue(pool.getSavedBytes() > 0);
+    }
 }
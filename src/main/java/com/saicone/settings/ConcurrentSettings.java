@@ -0,0 +1,505 @@
+package com.saicone.settings;
+
+import com.saicone.settings.memory.ConcurrentMemory;
+import com.saicone.settings.node.MapNode;
+import com.saicone.settings.node.MapSnapshot;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.NodeValue;
+import com.saicone.settings.node.RegexPath;
+import com.saicone.settings.util.Strings;
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Settings object that can be read and edited from multiple threads.<br>
+ * Lookups are optimistic reads that never block unless a write happens at the same time,
+ * and any edit made with settings methods is executed inside a short exclusive section.
+ * By default, a {@link ConcurrentMemory} is used to save node path ids.<br>
+ * A missing node is first looked up without any lock, and it's only created inside an
+ * exclusive section when lookups are materializing.<br>
+ * Any node returned by this object is part of the settings tree, so it must be edited
+ * inside {@link #write(Supplier)} to keep the tree consistent for readers,
+ * the same applies to the raw map from {@link #getValue()}.<br>
+ * Ignore-case lookups use a lower-case path index that is built inside an exclusive section
+ * on the first ignore-case lookup and updated by every edit, so they are also optimistic reads.
+ *
+ * @author Rubenicos
+ */
+public class ConcurrentSettings extends Settings {
+
+    private final StampedLock lock = new StampedLock();
+    // The thread inside exclusive section, only compared against the current thread
+    private Thread writer;
+    // Lower-case path index, only built and edited inside exclusive section
+    private Map<NodePath, SettingsNode> ignoreCaseIndex;
+
+    /**
+     * Constructs an empty concurrent settings object with a concurrent memory.<br>
+     * By default, key insertion order will be maintained.
+     */
+    public ConcurrentSettings() {
+        this(new ConcurrentMemory());
+    }
+
+    /**
+     * Constructs an empty concurrent settings object with given memory.<br>
+     * The memory must be safe to use from multiple threads.
+     *
+     * @param memory the memory to save node path ids.
+     */
+    public ConcurrentSettings(@Nullable SettingsMemory memory) {
+        super(memory);
+    }
+
+    /**
+     * Execute the provided supplier as read operation.<br>
+     * The supplier is first executed without any lock, and executed again with a read lock
+     * if any write happened at the same time, so it must not edit anything.
+     *
+     * @param supplier the read operation.
+     * @return         the value returned by supplier.
+     * @param <T>      the value type.
+     */
+    public <T> T read(@NotNull Supplier<T> supplier) {
+        if (writer == Thread.currentThread()) {
+            return supplier.get();
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                final T result = supplier.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // An inconsistent state was read while a write was made
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Execute the provided supplier as write operation.<br>
+     * Any other read or write operation will wait until the supplier is completed,
+     * and any nested operation executed by supplier doesn't acquire the lock again.
+     *
+     * @param supplier the write operation.
+     * @return         the value returned by supplier.
+     * @param <T>      the value type.
+     */
+    public <T> T write(@NotNull Supplier<T> supplier) {
+        final Thread thread = Thread.currentThread();
+        if (writer == thread) {
+            return supplier.get();
+        }
+        final long stamp = lock.writeLock();
+        writer = thread;
+        try {
+            return supplier.get();
+        } finally {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @NotNull
+    private SettingsNode lookup(@NotNull Supplier<SettingsNode> find, @NotNull Supplier<SettingsNode> get) {
+        final SettingsNode node = read(find);
+        if (node != NodeValue.empty() || !isMaterializing()) {
+            return node;
+        }
+        return write(get);
+    }
+
+    @Override
+    public @NotNull SettingsNode get(@NotNull String key) {
+        return lookup(() -> super.find(key), () -> super.get(key));
+    }
+
+    @Override
+    public @NotNull SettingsNode get(@NotNull String... path) {
+        return lookup(() -> super.find(path), () -> super.get(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode get(@NotNull NodePath path) {
+        return lookup(() -> super.find(path), () -> super.get(path));
+    }
+
+    @Override
+    public SettingsNode get(Object key) {
+        return read(() -> super.get(key));
+    }
+
+    @Override
+    public @NotNull SettingsNode getIgnoreCase(@NotNull String key) {
+        return getIgnoreCase(NodePath.of(key));
+    }
+
+    @Override
+    public @NotNull SettingsNode getIgnoreCase(@NotNull String... path) {
+        return getIgnoreCase(NodePath.of(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode getIgnoreCase(@NotNull NodePath path) {
+        final SettingsNode node = findIgnoreCase(path);
+        if (node != NodeValue.empty() || !isMaterializing()) {
+            return node;
+        }
+        return write(() -> super.getIgnoreCase(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull String key) {
+        return read(() -> super.find(key));
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull String... path) {
+        return read(() -> super.find(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull NodePath path) {
+        return read(() -> super.find(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull String key) {
+        return findIgnoreCase(NodePath.of(key));
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull String... path) {
+        return findIgnoreCase(NodePath.of(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull NodePath path) {
+        if (ignoreCaseIndex == null) {
+            write(() -> {
+                if (ignoreCaseIndex == null) {
+                    buildIgnoreCaseIndex();
+                }
+                return null;
+            });
+        }
+        final NodePath lowerPath = path.lowerCase();
+        return read(() -> {
+            final SettingsNode node = ignoreCaseIndex.get(lowerPath);
+            return node != null ? node : NodeValue.empty();
+        });
+    }
+
+    @Override
+    public @NotNull Optional<SettingsNode> getIfPresent(@NotNull String... path) {
+        return read(() -> super.getIfPresent(path));
+    }
+
+    @Override
+    public @NotNull Optional<SettingsNode> getIfPresent(@NotNull NodePath path) {
+        return read(() -> super.getIfPresent(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode getOrCreate(@NotNull String... path) {
+        return write(() -> super.getOrCreate(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode getOrCreate(@NotNull NodePath path) {
+        return write(() -> super.getOrCreate(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode getOrCreateIgnoreCase(@NotNull String... path) {
+        return write(() -> super.getOrCreateIgnoreCase(path));
+    }
+
+    @Override
+    public @NotNull SettingsNode getRegex(@NotNull @Language(value = "RegExp") String regex) {
+        return read(() -> super.getRegex(regex));
+    }
+
+    @Override
+    public @NotNull SettingsNode getRegex(@NotNull @Language(value = "RegExp") String... regexPath) {
+        return read(() -> super.getRegex(regexPath));
+    }
+
+    @Override
+    public @NotNull SettingsNode getRegex(@NotNull RegexPath path) {
+        return read(() -> super.getRegex(path));
+    }
+
+    @Override
+    protected @NotNull Map<NodePath, SettingsNode> getIndex() {
+        if (writer != Thread.currentThread() && !hasIndex()) {
+            // The index is only built by writers, any write leaves it built
+            throw new IllegalStateException("Cannot build path index outside write operation");
+        }
+        return super.getIndex();
+    }
+
+    private void buildIgnoreCaseIndex() {
+        ignoreCaseIndex = new HashMap<>();
+        for (Map.Entry<String, SettingsNode> entry : getValue().entrySet()) {
+            indexIgnoreCase(NodePath.of(Strings.lowerCase(entry.getKey())), entry.getValue());
+        }
+    }
+
+    private void indexIgnoreCase(@NotNull NodePath lowerPath, @NotNull SettingsNode node) {
+        // The first inserted key with the same lower-case form is used, the same as map nodes
+        if (ignoreCaseIndex.putIfAbsent(lowerPath, node) == null && node.isMap()) {
+            for (Map.Entry<String, SettingsNode> entry : node.asMapNode().getValue().entrySet()) {
+                indexIgnoreCase(lowerPath.child(Strings.lowerCase(entry.getKey())), entry.getValue());
+            }
+        }
+    }
+
+    private boolean unindexIgnoreCase(@NotNull NodePath lowerPath, @NotNull SettingsNode node) {
+        if (!ignoreCaseIndex.remove(lowerPath, node)) {
+            return false;
+        }
+        if (node.isMap()) {
+            for (Map.Entry<String, SettingsNode> entry : node.asMapNode().getValue().entrySet()) {
+                unindexIgnoreCase(lowerPath.child(Strings.lowerCase(entry.getKey())), entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void add(@NotNull SettingsNode node) {
+        super.add(node);
+        if (ignoreCaseIndex == null) {
+            return;
+        }
+        final NodePath path = pathOf(node, true);
+        if (path == null) {
+            return;
+        }
+        final NodePath lowerPath = path.lowerCase();
+        final SettingsNode previous = ignoreCaseIndex.get(lowerPath);
+        if (previous == node) {
+            return;
+        }
+        if (previous != null) {
+            if (pathOf(previous, true) != null) {
+                // Other key with the same lower-case form was inserted first
+                return;
+            }
+            unindexIgnoreCase(lowerPath, previous);
+        }
+        // Any node is only reachable if its parent is reachable
+        final MapNode parent = node.getParent();
+        if (parent == this || lowerPath.size() > 1 && ignoreCaseIndex.get(parentOf(lowerPath)) == parent) {
+            indexIgnoreCase(lowerPath, node);
+        }
+    }
+
+    @Override
+    protected void remove(@NotNull SettingsNode node) {
+        super.remove(node);
+        if (ignoreCaseIndex == null) {
+            return;
+        }
+        final NodePath path = pathOf(node, false);
+        if (path == null) {
+            return;
+        }
+        final NodePath lowerPath = path.lowerCase();
+        final MapNode parent = node.getParent();
+        if (unindexIgnoreCase(lowerPath, node) && parent != null) {
+            // Other key with the same lower-case form can be found now
+            final String lowerKey = lowerPath.getLast();
+            for (Map.Entry<String, SettingsNode> entry : parent.getValue().entrySet()) {
+                if (entry.getValue() != node && Strings.lowerCase(entry.getKey()).equals(lowerKey)) {
+                    indexIgnoreCase(lowerPath, entry.getValue());
+                    break;
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static NodePath parentOf(@NotNull NodePath path) {
+        return NodePath.of(Arrays.copyOf(path.getKeys(), path.size() - 1));
+    }
+
+    @Override
+    public @NotNull Settings setIndexing(boolean indexing) {
+        return write(() -> {
+            super.setIndexing(indexing);
+            if (indexing) {
+                super.getIndex();
+            }
+            return this;
+        });
+    }
+
+    @Override
+    public @NotNull Settings setMemory(@Nullable SettingsMemory memory) {
+        return write(() -> super.setMemory(memory));
+    }
+
+    @Override
+    public @NotNull Settings setMapMemory() {
+        return setMemory(new ConcurrentMemory());
+    }
+
+    @Override
+    public @NotNull Settings setMaterializing(boolean materializing) {
+        return write(() -> super.setMaterializing(materializing));
+    }
+
+    @Override
+    public SettingsNode put(String key, Object value) {
+        return write(() -> super.put(key, value));
+    }
+
+    @Override
+    public SettingsNode put(String key, SettingsNode value) {
+        return write(() -> super.put(key, value));
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends String, ? extends SettingsNode> m) {
+        write(() -> {
+            super.putAll(m);
+            return null;
+        });
+    }
+
+    @Override
+    public void set(@NotNull SettingsNode node, @NotNull String... path) {
+        write(() -> {
+            super.set(node, path);
+            return null;
+        });
+    }
+
+    @Override
+    public @NotNull SettingsNode setValue(@NotNull Object value) {
+        return write(() -> super.setValue(value));
+    }
+
+    @Override
+    public MapNode merge(@NotNull Map<?, ?> map, boolean replace, boolean deep, boolean append) {
+        return write(() -> super.merge(map, replace, deep, append));
+    }
+
+    @Override
+    public SettingsNode remove(Object key) {
+        return write(() -> super.remove(key));
+    }
+
+    @Override
+    public SettingsNode remove(Object key, boolean deep) {
+        return write(() -> super.remove(key, deep));
+    }
+
+    @Override
+    public boolean removeIf(@NotNull Predicate<SettingsNode> predicate, boolean deep) {
+        return write(() -> super.removeIf(predicate, deep));
+    }
+
+    @Override
+    public @NotNull SettingsNode edit(@NotNull Function<SettingsNode, SettingsNode> function) {
+        return write(() -> super.edit(function));
+    }
+
+    @Override
+    public @NotNull MapNode swap(@NotNull MapNode node) {
+        return write(() -> {
+            super.swap(node);
+            if (isIndexing()) {
+                super.getIndex();
+            }
+            if (ignoreCaseIndex != null) {
+                buildIgnoreCaseIndex();
+            }
+            return this;
+        });
+    }
+
+    @Override
+    protected void interned(@NotNull MapNode node) {
+        write(() -> {
+            super.interned(node);
+            if (ignoreCaseIndex != null) {
+                // Shared maps create new child views, so the previous children are not indexed anymore
+                buildIgnoreCaseIndex();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void clear() {
+        write(() -> {
+            super.clear();
+            if (isIndexing()) {
+                super.getIndex();
+            }
+            if (ignoreCaseIndex != null) {
+                ignoreCaseIndex = new HashMap<>();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public @NotNull Settings freeze() {
+        return write(super::freeze);
+    }
+
+    @Override
+    public @NotNull MapSnapshot snapshot() {
+        // Snapshot is cached into map nodes
+        return write(super::snapshot);
+    }
+
+    @Override
+    public int size() {
+        return read(super::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(super::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return read(() -> super.containsKey(key));
+    }
+
+    @Override
+    public @NotNull Map<String, Object> asLiteralObject() {
+        return read(super::asLiteralObject);
+    }
+
+    @Override
+    public @NotNull Settings setMapSupplier(@Nullable Supplier<Map<String, SettingsNode>> mapSupplier) {
+        return write(() -> super.setMapSupplier(mapSupplier));
+    }
+}
@@ -1,13 +1,19 @@
 package com.saicone.settings;
 
 import com.saicone.settings.memory.MapMemory;
+import com.saicone.settings.memory.MemoryStats;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.NodeValue;
+import com.saicone.settings.node.RegexPath;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -19,13 +25,22 @@ import java.util.function.Supplier;
 public class Settings extends MapNode {
 
     private SettingsMemory memory;
+    // Settings stamp at last memory clear
+    private int memoryStamp;
+    private boolean materializing = true;
+    private boolean indexing;
+    // Lazily built index of every node path
+    private Map<NodePath, SettingsNode> index;
+    // True if the index doesn't include the children of shared maps
+    private boolean indexShared;
+    private Supplier<Map<String, SettingsNode>> mapSupplier;
 
     /**
      * Constructs an empty settings object.<br>
      * By default, key insertion order will be maintained.
      */
     public Settings() {
-        this(new LinkedHashMap<>());
+        super();
     }
 
     /**
@@ -44,7 +59,8 @@ public class Settings extends MapNode {
      * @param memory the memory to save node path ids.
      */
     public Settings(@Nullable SettingsMemory memory) {
-        this(new LinkedHashMap<>(), memory);
+        super();
+        this.memory = memory;
     }
 
     /**
@@ -77,8 +93,29 @@ public class Settings extends MapNode {
         return memory;
     }
 
+    /**
+     * Check if the settings instance creates missing nodes on lookups.
+     *
+     * @return true if any missing node is created and added into settings on get methods.
+     */
+    public boolean isMaterializing() {
+        return materializing;
+    }
+
+    /**
+     * Check if the settings instance is using a full path index to get nodes.
+     *
+     * @return true if every node path is indexed.
+     */
+    public boolean isIndexing() {
+        return indexing;
+    }
+
     @Override
     public @NotNull SettingsNode get(@NotNull String key) {
+        if (!materializing) {
+            return find(key);
+        }
         if (isMemorizing()) {
             return save(key, () -> super.get(key));
         }
@@ -87,28 +124,145 @@ public class Settings extends MapNode {
 
     @Override
     public @NotNull SettingsNode get(@NotNull String... path) {
+        if (!materializing) {
+            return find(path);
+        }
         if (isMemorizing()) {
             return save(String.join(".", path), () -> super.get(path));
         }
         return super.get(path);
     }
 
+    @Override
+    public @NotNull SettingsNode get(@NotNull NodePath path) {
+        if (!materializing) {
+            return find(path);
+        }
+        if (indexing) {
+            final SettingsNode node = getIndex().get(path);
+            if (node != null) {
+                return node;
+            }
+            return super.get(path);
+        }
+        if (isMemorizing()) {
+            final String id = path.toString();
+            final SettingsNode node = recall(id);
+            if (node != null) {
+                return node;
+            }
+            final long start = System.nanoTime();
+            return memorize(id, start, super.get(path));
+        }
+        return super.get(path);
+    }
+
     @Override
     public @NotNull SettingsNode getIgnoreCase(@NotNull String key) {
+        if (!materializing) {
+            return findIgnoreCase(key);
+        }
         if (isMemorizing()) {
-            return save(key, () -> super.getIgnoreCase(key));
+            return save("$IgnoreCase." + key, () -> super.getIgnoreCase(key));
         }
         return super.getIgnoreCase(key);
     }
 
     @Override
     public @NotNull SettingsNode getIgnoreCase(@NotNull String... path) {
+        if (!materializing) {
+            return findIgnoreCase(path);
+        }
         if (isMemorizing()) {
-            return save(String.join(".", path), () -> super.getIgnoreCase(path));
+            return save("$IgnoreCase." + String.join(".", path), () -> super.getIgnoreCase(path));
         }
         return super.getIgnoreCase(path);
     }
 
+    @Override
+    public @NotNull SettingsNode getIgnoreCase(@NotNull NodePath path) {
+        if (!materializing) {
+            return findIgnoreCase(path);
+        }
+        if (isMemorizing()) {
+            final String id = path.toIgnoreCaseString();
+            final SettingsNode node = recall(id);
+            if (node != null) {
+                return node;
+            }
+            final long start = System.nanoTime();
+            return memorize(id, start, super.getIgnoreCase(path));
+        }
+        return super.getIgnoreCase(path);
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull String key) {
+        if (isMemorizing()) {
+            return save(key, () -> super.find(key));
+        }
+        return super.find(key);
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull String... path) {
+        if (isMemorizing()) {
+            return save(String.join(".", path), () -> super.find(path));
+        }
+        return super.find(path);
+    }
+
+    @Override
+    public @NotNull SettingsNode find(@NotNull NodePath path) {
+        if (indexing) {
+            final SettingsNode node = getIndex().get(path);
+            if (node != null) {
+                return node;
+            }
+            return indexShared ? super.find(path) : NodeValue.empty();
+        }
+        if (isMemorizing()) {
+            final String id = path.toString();
+            final SettingsNode node = recall(id);
+            if (node != null) {
+                return node;
+            }
+            final long start = System.nanoTime();
+            return memorize(id, start, super.find(path));
+        }
+        return super.find(path);
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull String key) {
+        if (isMemorizing()) {
+            return save("$IgnoreCase." + key, () -> super.findIgnoreCase(key));
+        }
+        return super.findIgnoreCase(key);
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull String... path) {
+        if (isMemorizing()) {
+            return save("$IgnoreCase." + String.join(".", path), () -> super.findIgnoreCase(path));
+        }
+        return super.findIgnoreCase(path);
+    }
+
+    @Override
+    public @NotNull SettingsNode findIgnoreCase(@NotNull NodePath path) {
+        if (isMemorizing()) {
+            final String id = path.toIgnoreCaseString();
+            final SettingsNode node = recall(id);
+            if (node != null) {
+                return node;
+            }
+            final long start = System.nanoTime();
+            return memorize(id, start, super.findIgnoreCase(path));
+        }
+        return super.findIgnoreCase(path);
+    }
+
     @Override
     public @NotNull SettingsNode getRegex(@NotNull @Language(value = "RegExp") String regex) {
         if (isMemorizing()) {
@@ -120,13 +274,40 @@ public class Settings extends MapNode {
     @Override
     public @NotNull SettingsNode getRegex(@NotNull @Language(value = "RegExp") String... regexPath) {
         if (isMemorizing()) {
-            save("$RegExp." + String.join(".", regexPath), () -> super.getRegex(regexPath));
+            return save("$RegExp." + String.join(".", regexPath), () -> super.getRegex(regexPath));
         }
         return super.getRegex(regexPath);
     }
 
+    @Override
+    public @NotNull SettingsNode getRegex(@NotNull RegexPath path) {
+        if (isMemorizing()) {
+            return save("$RegExp." + path, () -> super.getRegex(path));
+        }
+        return super.getRegex(path);
+    }
+
+    /**
+     * Get a previously saved node from memory.<br>
+     * If the settings stamp has changed since the last memory clear, every node in the path
+     * is checked to be still contained by its parent, otherwise it's removed from memory.
+     *
+     * @param id the node path id.
+     * @return   a valid node from memory, null otherwise.
+     */
+    @Nullable
+    protected SettingsNode recall(@NotNull String id) {
+        final SettingsNode node = memory.get(id);
+        if (node != null && memoryStamp != getStamp() && !isAttached(node)) {
+            memory.removeTree(node);
+            return null;
+        }
+        return node;
+    }
+
     /**
-     * Save supplier value into memory or get from if it actually exists.
+     * Save supplier value into memory or get from if it actually exists.<br>
+     * The {@link NodeValue#empty()} node is never saved into memory.
      *
      * @param id       the value id.
      * @param supplier the supplier to get value.
@@ -134,12 +315,23 @@ public class Settings extends MapNode {
      */
     @NotNull
     protected SettingsNode save(@NotNull String id, @NotNull Supplier<@NotNull SettingsNode> supplier) {
-        SettingsNode node = memory.get(id);
+        final SettingsNode node = recall(id);
         if (node != null) {
             return node;
         }
-        node = supplier.get();
-        memory.save(id, node);
+        final long start = System.nanoTime();
+        return memorize(id, start, supplier.get());
+    }
+
+    @NotNull
+    private SettingsNode memorize(@NotNull String id, long start, @NotNull SettingsNode node) {
+        final MemoryStats stats = memory.getStats();
+        if (stats != null) {
+            stats.recordLoad(id, System.nanoTime() - start);
+        }
+        if (node != NodeValue.empty()) {
+            memory.save(id, node);
+        }
         return node;
     }
 
@@ -152,10 +344,72 @@ public class Settings extends MapNode {
     @NotNull
     @Contract("_ -> this")
     public Settings setMemory(@Nullable SettingsMemory memory) {
+        checkMutable();
         this.memory = memory;
+        this.memoryStamp = getStamp();
         return this;
     }
 
+    /**
+     * Set the lookup behavior of this instance.<br>
+     * By default, any missing node is created and added into settings when it's requested with get methods,
+     * disabling this option makes get methods to behave like find methods, so any missing node
+     * will be returned as {@link NodeValue#empty()} node and settings will not grow on lookups.
+     *
+     * @param materializing true to create missing nodes on lookups.
+     * @return              the effective settings object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public Settings setMaterializing(boolean materializing) {
+        checkMutable();
+        this.materializing = materializing;
+        return this;
+    }
+
+    /**
+     * Set the full path index usage on this instance.<br>
+     * The index save every node path from settings, and it's built in one traversal on the first lookup
+     * after any settings clear, then it's kept updated by any node addition or deletion.<br>
+     * Unlike memory, the index is complete, so every lookup by {@link NodePath} or split path
+     * is resolved with a single hash lookup.
+     *
+     * @param indexing true to index every node path.
+     * @return         the effective settings object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public Settings setIndexing(boolean indexing) {
+        checkMutable();
+        this.indexing = indexing;
+        this.index = null;
+        return this;
+    }
+
+    /**
+     * Set the map type used by any map node created inside this instance.<br>
+     * By default, an insertion-ordered compact map is used, which takes less memory
+     * than a linked hash map for small maps.
+     *
+     * @param mapSupplier the supplier of maps to save nodes into, null to use the default map type.
+     * @return            the effective settings object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public Settings setMapSupplier(@Nullable Supplier<Map<String, SettingsNode>> mapSupplier) {
+        checkMutable();
+        this.mapSupplier = mapSupplier;
+        return this;
+    }
+
+    @Override
+    protected @NotNull Map<String, SettingsNode> newMap() {
+        if (mapSupplier != null) {
+            return mapSupplier.get();
+        }
+        return super.newMap();
+    }
+
     /**
      * Set a regular map memory on this instance.
      *
@@ -167,10 +421,164 @@ public class Settings extends MapNode {
         return setMemory(new MapMemory());
     }
 
+    /**
+     * Make the current settings immutable, so any edit operation on it or its nodes will throw an exception.<br>
+     * Since frozen settings cannot change, memory is discarded in favor of a full path index
+     * that is built once, and any lookup of a missing node returns {@link NodeValue#empty()}
+     * instead of creating it. After this operation, the settings can be read from multiple threads
+     * without synchronization.
+     *
+     * @return this object itself.
+     */
+    @Override
+    public @NotNull Settings freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        this.memory = null;
+        this.materializing = false;
+        this.indexing = true;
+        this.index = null;
+        super.freeze();
+        getIndex();
+        return this;
+    }
+
+    /**
+     * Get the full path index, or build it if it's not built yet.
+     *
+     * @return a map containing every node path.
+     */
+    @NotNull
+    protected Map<NodePath, SettingsNode> getIndex() {
+        if (index == null) {
+            indexShared = false;
+            final Map<NodePath, SettingsNode> map = new HashMap<>();
+            for (Entry<String, SettingsNode> entry : getValue().entrySet()) {
+                index(map, NodePath.of(entry.getKey()), entry.getValue());
+            }
+            index = map;
+        }
+        return index;
+    }
+
+    @Override
+    protected void interned(@NotNull MapNode node) {
+        super.interned(node);
+        if (index != null) {
+            // Rebuild the index without the children of shared maps
+            index = null;
+            getIndex();
+        }
+    }
+
+    /**
+     * Check if the full path index is currently built.
+     *
+     * @return true if the index exists.
+     */
+    boolean hasIndex() {
+        return index != null;
+    }
+
+    private void index(@NotNull Map<NodePath, SettingsNode> map, @NotNull NodePath path, @NotNull SettingsNode node) {
+        map.put(path, node);
+        if (!node.isMap()) {
+            return;
+        }
+        if (node.asMapNode().isShared()) {
+            // Children of shared maps are created on each access, so they are found from their parent
+            indexShared = true;
+        } else {
+            for (Entry<String, SettingsNode> entry : node.asMapNode().getValue().entrySet()) {
+                index(map, path.child(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    private void unindex(@NotNull Map<NodePath, SettingsNode> map, @NotNull NodePath path, @NotNull SettingsNode node) {
+        if (map.remove(path, node) && node.isMap()) {
+            for (Entry<String, SettingsNode> entry : node.asMapNode().getValue().entrySet()) {
+                unindex(map, path.child(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Check if the given node is attached to this settings instance, the same as
+     * {@code pathOf(node, true) != null} but without creating any path.
+     *
+     * @param node the node to check.
+     * @return     true if every node in the path is actually contained by its parent.
+     */
+    private boolean isAttached(@NotNull SettingsNode node) {
+        SettingsNode current = node;
+        while (current != this) {
+            final MapNode parent = current.getParent();
+            final String key = current.getKey();
+            if (parent == null || key == null) {
+                return false;
+            }
+            final SettingsNode child = parent.getValue().get(key);
+            // Frozen maps with shared storage return a new view of the same child on every access
+            if (child != current && (child == null || !parent.isFrozen() || !current.isFrozen())) {
+                return false;
+            }
+            current = parent;
+        }
+        return node != this;
+    }
+
+    /**
+     * Get the path of the given node relative to this settings instance.
+     *
+     * @param node     the node to get the path.
+     * @param attached true to check if every node in the path is actually contained by its parent.
+     * @return         a node path, or null if the node doesn't belong to this settings instance.
+     */
+    @Nullable
+    NodePath pathOf(@NotNull SettingsNode node, boolean attached) {
+        final List<String> keys = new ArrayList<>();
+        SettingsNode current = node;
+        while (current != this) {
+            final MapNode parent = current.getParent();
+            final String key = current.getKey();
+            if (parent == null || key == null || (attached && parent.getValue().get(key) != current)) {
+                return null;
+            }
+            keys.add(key);
+            current = parent;
+        }
+        if (keys.isEmpty()) {
+            return null;
+        }
+        final String[] path = new String[keys.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = keys.get(path.length - 1 - i);
+        }
+        return NodePath.of(path);
+    }
+
+    @Override
+    protected void add(@NotNull SettingsNode node) {
+        if (index != null) {
+            final NodePath path = pathOf(node, true);
+            if (path != null) {
+                index(index, path, node);
+            }
+        }
+    }
+
     @Override
     protected void remove(@NotNull SettingsNode node) {
         if (isMemorizing()) {
-            memory.remove(node);
+            memory.removeTree(node);
+        }
+        if (index != null) {
+            final NodePath path = pathOf(node, false);
+            if (path != null) {
+                unindex(index, path, node);
+            }
         }
     }
 
@@ -182,11 +590,27 @@ public class Settings extends MapNode {
         return super.remove(key);
     }
 
+    @Override
+    public @NotNull MapNode swap(@NotNull MapNode node) {
+        checkMutable();
+        // Index and memory are rebuilt from the new nodes
+        index = null;
+        super.swap(node);
+        if (isMemorizing()) {
+            memory.clear();
+        }
+        memoryStamp = getStamp();
+        return this;
+    }
+
     @Override
     public void clear() {
-        super.clear();
+        checkMutable();
+        index = null;
         if (isMemorizing()) {
             memory.clear();
         }
+        super.clear();
+        memoryStamp = getStamp();
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.saicone.settings.data.DataFormat;
 import com.saicone.settings.data.DataType;
 import com.saicone.settings.node.ListNode;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.util.StringPool;
 import com.saicone.settings.util.Strings;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -26,6 +27,7 @@ import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Class to load any settings node from data.
@@ -45,7 +47,14 @@ public class SettingsData<T extends SettingsNode> {
     private String format;
     private SettingsData<T> optional;
     private SettingsSource source;
+    private StringPool stringPool;
+    private boolean readComments = true;
     private T loaded;
+    // Comment read mode used to read the loaded node
+    private boolean loadedComments = true;
+    // Node that is processed on reload, along with the comment read mode used to read it
+    private T processing;
+    private boolean processingComments;
 
     // Cached provided parameters
     private boolean optionalSupply = true;
@@ -142,11 +151,57 @@ public class SettingsData<T extends SettingsNode> {
     @Contract("_ -> this")
     public SettingsData<T> source(SettingsSource source) {
         this.source = source;
+        if (source != null) {
+            if (stringPool != null) {
+                source.setStringPool(stringPool);
+            }
+            if (!readComments) {
+                source.setReadComments(false);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Set the string pool that will be used to deduplicate node keys and string values on read.<br>
+     * The same pool can be shared across multiple settings data instances to deduplicate
+     * strings between different loaded settings.
+     *
+     * @param stringPool the string pool to use, null to not deduplicate strings.
+     * @return           this settings data instance.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public SettingsData<T> stringPool(@Nullable StringPool stringPool) {
+        this.stringPool = stringPool;
+        if (this.source != null) {
+            this.source.setStringPool(stringPool);
+        }
         return this;
     }
 
     /**
-     * Set the loaded settings node from data.
+     * Set the comment read mode that will be used to read settings data.<br>
+     * Skipping comments is useful for read-only data, since it makes any load faster,
+     * but it cannot be saved after that, because any comment on data would be lost.
+     *
+     * @param readComments true to read comments, false to skip any comment on read.
+     * @return             this settings data instance.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public SettingsData<T> readComments(boolean readComments) {
+        this.readComments = readComments;
+        if (this.source != null) {
+            this.source.setReadComments(readComments);
+        }
+        return this;
+    }
+
+    /**
+     * Set the loaded settings node from data.<br>
+     * The comment read mode of current loaded node is kept if the same node is provided,
+     * any other node is considered as saveable.
      *
      * @param loaded the current settings node.
      * @return       this settings data instance.
@@ -154,7 +209,21 @@ public class SettingsData<T extends SettingsNode> {
     @NotNull
     @Contract("_ -> this")
     public SettingsData<T> loaded(@NotNull T loaded) {
+        return loaded(loaded, loaded == this.loaded ? loadedComments : true);
+    }
+
+    /**
+     * Set the loaded settings node from data along with the comment read mode used to read it.
+     *
+     * @param loaded   the current settings node.
+     * @param comments true if the node was read with comments.
+     * @return         this settings data instance.
+     */
+    @NotNull
+    @Contract("_, _ -> this")
+    SettingsData<T> loaded(@NotNull T loaded, boolean comments) {
         this.loaded = loaded;
+        this.loadedComments = comments;
         return this;
     }
 
@@ -270,6 +339,52 @@ public class SettingsData<T extends SettingsNode> {
         return source;
     }
 
+    /**
+     * Get the string pool used to deduplicate strings on read.
+     *
+     * @return a string pool, null if strings are not deduplicated.
+     */
+    @Nullable
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Check if comments are read along with settings data.
+     *
+     * @return true if comments are read, false if any comment is skipped on read.
+     */
+    public boolean isReadComments() {
+        return readComments;
+    }
+
+    /**
+     * Check if the current loaded data can be saved.<br>
+     * Data that was read without comments is not saveable, any comment on it would be lost.
+     * This depends on the comment read mode used when the data was loaded, so changing the
+     * read mode after load doesn't make the loaded data saveable.
+     *
+     * @return true if the data can be saved.
+     */
+    public boolean isSaveable() {
+        return loadedComments;
+    }
+
+    /**
+     * Check if the provided node can be saved as current data.<br>
+     * A node that is being processed on reload uses the comment read mode it was read with,
+     * any other node uses the read mode of the current loaded data.
+     *
+     * @param node the node to check.
+     * @return     true if the node can be saved.
+     */
+    public boolean isSaveable(@Nullable SettingsNode node) {
+        if (node != null && node == processing) {
+            return processingComments;
+        }
+        return loadedComments;
+    }
+
     /**
      * Get loaded settings node instance.
      *
@@ -368,7 +483,69 @@ public class SettingsData<T extends SettingsNode> {
         } else if (loaded.isList()) {
             loaded.asListNode().clear();
         }
+        final boolean comments = getSource().isReadComments();
+        read(loaded);
+        loadedComments = comments;
+        return loaded;
+    }
 
+    /**
+     * Reload the current settings data without affecting the loaded node until the data is completely read.
+     *
+     * @return the loaded settings node.
+     * @see #reload(UnaryOperator)
+     */
+    @NotNull
+    public T reload() {
+        return reload(UnaryOperator.identity());
+    }
+
+    /**
+     * Reload the current settings data without affecting the loaded node until the data is completely read.<br>
+     * The data is read into a fresh node and processed with the provided function, then the resulting
+     * node content is swapped into the loaded node in a single step, so any thread reading the loaded
+     * node will see the previous settings or the new ones, but never an empty or partially read node.<br>
+     * If any error occurs while the data is read or processed, the loaded node is kept as is.
+     *
+     * @param process the function to apply on fresh node before it's published, like an update or parse.
+     * @return        the loaded settings node.
+     */
+    @NotNull
+    public T reload(@NotNull UnaryOperator<T> process) {
+        final boolean comments = getSource().isReadComments();
+        if (loaded == null) {
+            loaded = process(read(nodeSupplier.get()), comments, process);
+            loadedComments = comments;
+            return loaded;
+        }
+        final T node = process(read(nodeSupplier.get()), comments, process);
+        loadedComments = comments;
+        if (node == loaded) {
+            return loaded;
+        }
+        if (loaded.isMap() && node.isMap()) {
+            loaded.asMapNode().swap(node.asMapNode());
+        } else if (loaded.isList() && node.isList()) {
+            loaded.asListNode().swap(node.asListNode());
+        } else {
+            loaded = node;
+        }
+        return loaded;
+    }
+
+    @NotNull
+    private T process(@NotNull T node, boolean comments, @NotNull UnaryOperator<T> process) {
+        processing = node;
+        processingComments = comments;
+        try {
+            return process.apply(node);
+        } finally {
+            processing = null;
+        }
+    }
+
+    @NotNull
+    private T read(@NotNull T loaded) {
         try {
             Reader reader;
             try {
@@ -467,13 +644,35 @@ public class SettingsData<T extends SettingsNode> {
      */
     @NotNull
     public SettingsSource loadSource(@NotNull String type) {
-        return DataFormat.getSource(type);
+        final SettingsSource source = DataFormat.getSource(type);
+        if (stringPool != null) {
+            source.setStringPool(stringPool);
+        }
+        if (!readComments) {
+            source.setReadComments(false);
+        }
+        return source;
     }
 
     /**
      * Save current loaded data.
+     *
+     * @throws IllegalStateException if the data was read without comments.
      */
     public void save() {
+        save(loaded);
+    }
+
+    /**
+     * Save the provided node as current data.
+     *
+     * @param loaded the node to save.
+     * @throws IllegalStateException if the node was read without comments.
+     */
+    public void save(@Nullable SettingsNode loaded) {
+        if (!isSaveable(loaded)) {
+            throw new IllegalStateException("Cannot save settings data that was read without comments");
+        }
         final MapNode node;
         if (loaded instanceof MapNode) {
             node = (MapNode) loaded;
@@ -534,7 +733,9 @@ public class SettingsData<T extends SettingsNode> {
             return;
         }
         try (Reader reader = createReader(); Writer writer = provider.createWriter()) {
-            final MapNode node = getSource().read(reader, new MapNode());
+            // Keep comments on converted data
+            final SettingsSource source = getSource().isReadComments() ? getSource() : DataFormat.getSource(format);
+            final MapNode node = source.read(reader, new MapNode());
             provider.getSource().write(writer, node);
         }
     }
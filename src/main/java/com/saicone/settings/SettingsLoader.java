@@ -124,14 +124,46 @@ public class SettingsLoader {
                     provider.getOptional().load();
                 } catch (Throwable ignored) { }
             }
-            if (updater.update(node, provider.getOptionalLoaded()) && provider.getDataType().isWriteable()) {
+            if (updater.update(node, provider.getOptionalLoaded()) && provider.getDataType().isWriteable() && provider.isSaveable()) {
                 provider.save();
             }
         }
         if (parser != null) {
             node = (T) parser.parse(node);
         }
-        provider.loaded(node);
+        // The parsed node keeps the comment read mode of the data it comes from
+        provider.loaded(node, provider.isSaveable());
         return node;
     }
+
+    /**
+     * Reload the provided settings data without affecting the loaded map node until the
+     * data is completely read, updated and parsed.<br>
+     * Any thread reading the loaded map node will see the previous settings or the new ones,
+     * and the previous settings are kept if any error occurs.
+     *
+     * @param provider the settings data provider.
+     * @return         the loaded map node.
+     * @param <T>      the map node type.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T extends MapNode> T reload(@NotNull SettingsData<T> provider) {
+        return provider.reload(node -> {
+            if (updater != null) {
+                if (provider.getOptional() != null) {
+                    try {
+                        provider.getOptional().load();
+                    } catch (Throwable ignored) { }
+                }
+                if (updater.update(node, provider.getOptionalLoaded()) && provider.getDataType().isWriteable() && provider.isSaveable(node)) {
+                    provider.save(node);
+                }
+            }
+            if (parser != null) {
+                node = (T) parser.parse(node);
+            }
+            return node;
+        });
+    }
 }
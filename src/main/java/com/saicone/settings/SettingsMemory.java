@@ -1,5 +1,6 @@
 package com.saicone.settings;
 
+import com.saicone.settings.memory.MemoryStats;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -41,9 +42,44 @@ public interface SettingsMemory {
      */
     void remove(@NotNull SettingsNode node);
 
+    /**
+     * Remove a node and every sub node by value itself.<br>
+     * This method should be used when a whole node tree is deleted, so any
+     * path id that points to a child node will be also removed.
+     *
+     * @param node the node tree to remove.
+     */
+    default void removeTree(@NotNull SettingsNode node) {
+        remove(node);
+        if (node.isMap()) {
+            for (SettingsNode child : node.asMapNode().values()) {
+                removeTree(child);
+            }
+        }
+    }
+
     /**
      * Clear the current settings memory.
      */
     void clear();
 
+    /**
+     * Get the number of currently saved nodes.
+     *
+     * @return a size number, or -1 if the size is unknown.
+     */
+    default long size() {
+        return -1;
+    }
+
+    /**
+     * Get the usage statistics of the current settings memory.
+     *
+     * @return a memory stats object, null if the memory doesn't record any statistic.
+     */
+    @Nullable
+    default MemoryStats getStats() {
+        return null;
+    }
+
 }
\ No newline at end of file
@@ -51,6 +51,15 @@ public interface SettingsNode extends AnyObject<Object> {
         return false;
     }
 
+    /**
+     * Check if the current node is frozen, so any edit operation on it will throw an exception.
+     *
+     * @return true if the node cannot be edited.
+     */
+    default boolean isFrozen() {
+        return false;
+    }
+
     /**
      * Check if the current node is the root node.
      *
@@ -117,7 +126,8 @@ public interface SettingsNode extends AnyObject<Object> {
     Object getSourceValue();
 
     /**
-     * Get top comment from the node.
+     * Get top comment from the node.<br>
+     * The returned list may be unmodifiable, use the add or set comment methods to edit it.
      *
      * @return a comment if is set, null otherwise.
      */
@@ -125,13 +135,25 @@ public interface SettingsNode extends AnyObject<Object> {
     List<String> getTopComment();
 
     /**
-     * Get side comment from the node.
+     * Get side comment from the node.<br>
+     * The returned list may be unmodifiable, use the add or set comment methods to edit it.
      *
      * @return a comment if is set, null otherwise.
      */
     @Nullable
     List<String> getSideComment();
 
+    /**
+     * Get the modification stamp of the node.<br>
+     * The stamp changes every time the node value or any sub node is modified,
+     * and also when the node is detached from its parent.
+     *
+     * @return a stamp number.
+     */
+    default int getStamp() {
+        return 0;
+    }
+
     /**
      * Get root value from node tree.
      *
@@ -216,7 +238,11 @@ public interface SettingsNode extends AnyObject<Object> {
             if (topComment == null) {
                 return setTopComment(new ArrayList<>(lines));
             } else {
-                topComment.addAll(lines);
+                // Copy on write, comment may be shared with other nodes
+                final List<String> comment = new ArrayList<>(topComment.size() + lines.size());
+                comment.addAll(topComment);
+                comment.addAll(lines);
+                return setTopComment(comment);
             }
         }
         return this;
@@ -235,7 +261,11 @@ public interface SettingsNode extends AnyObject<Object> {
             if (sideComment == null) {
                 return setSideComment(new ArrayList<>(lines));
             } else {
-                sideComment.addAll(lines);
+                // Copy on write, comment may be shared with other nodes
+                final List<String> comment = new ArrayList<>(sideComment.size() + lines.size());
+                comment.addAll(sideComment);
+                comment.addAll(lines);
+                return setSideComment(comment);
             }
         }
         return this;
@@ -272,7 +272,14 @@ public class SettingsParser {
         if (node == null) {
             return null;
         }
-        parse(node, node.get(path).setValue(value));
+        if (node instanceof ConcurrentSettings) {
+            // Value is set and parsed in a single exclusive section
+            return ((ConcurrentSettings) node).write(() -> {
+                parse(node, node.getOrCreate(path).setValue(value));
+                return node;
+            });
+        }
+        parse(node, node.getOrCreate(path).setValue(value));
         return node;
     }
 }
@@ -1,6 +1,7 @@
 package com.saicone.settings;
 
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.util.StringPool;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -19,6 +20,59 @@ import java.util.List;
  */
 public interface SettingsSource {
 
+    /**
+     * Get the string pool used to deduplicate node keys and string values on read.
+     *
+     * @return a string pool, null if strings are not deduplicated.
+     */
+    @Nullable
+    default StringPool getStringPool() {
+        return null;
+    }
+
+    /**
+     * Set the string pool used to deduplicate node keys and string values on read.<br>
+     * Any source that doesn't support string deduplication will ignore the provided pool.
+     *
+     * @param stringPool the string pool to use, null to not deduplicate strings.
+     */
+    default void setStringPool(@Nullable StringPool stringPool) {
+    }
+
+    /**
+     * Check if comments are read along with node values.
+     *
+     * @return true if comments are read, false if any comment is skipped on read.
+     */
+    default boolean isReadComments() {
+        return true;
+    }
+
+    /**
+     * Set the comment read mode of this source.<br>
+     * Skipping comments makes any read faster, but the data will lose its comments if
+     * it's written back, so any settings data that was read without comments cannot be saved.<br>
+     * Any source that doesn't support comments will ignore the provided mode.
+     *
+     * @param readComments true to read comments, false to skip any comment on read.
+     */
+    default void setReadComments(boolean readComments) {
+    }
+
+    /**
+     * Deduplicate the provided node key or value using the current string pool.
+     *
+     * @param object the node key or value.
+     * @return       a pooled string if the object is a string and any pool is used, the provided object otherwise.
+     * @param <T>    the object type.
+     */
+    @Nullable
+    @Contract("!null -> !null")
+    default <T> T deduplicate(@Nullable T object) {
+        final StringPool pool = getStringPool();
+        return pool == null ? object : pool.internObject(object);
+    }
+
     /**
      * Use the provided reader to add every node value into parent map node.
      *
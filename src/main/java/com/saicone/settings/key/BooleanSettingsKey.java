@@ -0,0 +1,68 @@
+package com.saicone.settings.key;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings key that caches the node value as primitive boolean without boxing.
+ *
+ * @author Rubenicos
+ */
+public class BooleanSettingsKey extends SettingsKey<Boolean> {
+
+    private final boolean def;
+
+    private volatile Bound bound;
+
+    /**
+     * Constructs a boolean settings key with the given parameters.
+     *
+     * @param path the node path.
+     * @param def  the default value to return if the node value cannot be converted.
+     */
+    public BooleanSettingsKey(@NotNull NodePath path, boolean def) {
+        super(path, Types.BOOLEAN, def);
+        this.def = def;
+    }
+
+    /**
+     * Get the node value associated with this key from the provided settings as boolean.
+     *
+     * @param settings the settings to get the value from.
+     * @return         a boolean value or the default value if the node doesn't exist or cannot be converted.
+     */
+    public boolean getBoolean(@NotNull Settings settings) {
+        Bound bound = this.bound;
+        if (bound == null || !isValid(settings, bound.settings, bound.node, bound.stamp)) {
+            final SettingsNode node = getNode(settings);
+            final int stamp = stampOf(settings, node);
+            final Boolean value = node.as(Types.BOOLEAN, null);
+            bound = new Bound(settings, node, stamp, value == null ? def : value);
+            this.bound = bound;
+        }
+        return bound.value;
+    }
+
+    @Override
+    public @NotNull Boolean get(@NotNull Settings settings) {
+        return getBoolean(settings);
+    }
+
+    private static final class Bound {
+
+        private final Settings settings;
+        private final SettingsNode node;
+        private final int stamp;
+        private final boolean value;
+
+        Bound(@NotNull Settings settings, @NotNull SettingsNode node, int stamp, boolean value) {
+            this.settings = settings;
+            this.node = node;
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.saicone.settings.key;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings key that caches the node value as primitive double without boxing.
+ *
+ * @author Rubenicos
+ */
+public class DoubleSettingsKey extends SettingsKey<Double> {
+
+    private final double def;
+
+    private volatile Bound bound;
+
+    /**
+     * Constructs a double settings key with the given parameters.
+     *
+     * @param path the node path.
+     * @param def  the default value to return if the node value cannot be converted.
+     */
+    public DoubleSettingsKey(@NotNull NodePath path, double def) {
+        super(path, Types.DOUBLE, def);
+        this.def = def;
+    }
+
+    /**
+     * Get the node value associated with this key from the provided settings as double.
+     *
+     * @param settings the settings to get the value from.
+     * @return         a double value or the default value if the node doesn't exist or cannot be converted.
+     */
+    public double getDouble(@NotNull Settings settings) {
+        Bound bound = this.bound;
+        if (bound == null || !isValid(settings, bound.settings, bound.node, bound.stamp)) {
+            final SettingsNode node = getNode(settings);
+            final int stamp = stampOf(settings, node);
+            final Double value = node.as(Types.DOUBLE, null);
+            bound = new Bound(settings, node, stamp, value == null ? def : value);
+            this.bound = bound;
+        }
+        return bound.value;
+    }
+
+    @Override
+    public @NotNull Double get(@NotNull Settings settings) {
+        return getDouble(settings);
+    }
+
+    private static final class Bound {
+
+        private final Settings settings;
+        private final SettingsNode node;
+        private final int stamp;
+        private final double value;
+
+        Bound(@NotNull Settings settings, @NotNull SettingsNode node, int stamp, double value) {
+            this.settings = settings;
+            this.node = node;
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
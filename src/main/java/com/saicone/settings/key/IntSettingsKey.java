@@ -0,0 +1,68 @@
+package com.saicone.settings.key;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings key that caches the node value as primitive int without boxing.
+ *
+ * @author Rubenicos
+ */
+public class IntSettingsKey extends SettingsKey<Integer> {
+
+    private final int def;
+
+    private volatile Bound bound;
+
+    /**
+     * Constructs an int settings key with the given parameters.
+     *
+     * @param path the node path.
+     * @param def  the default value to return if the node value cannot be converted.
+     */
+    public IntSettingsKey(@NotNull NodePath path, int def) {
+        super(path, Types.INTEGER, def);
+        this.def = def;
+    }
+
+    /**
+     * Get the node value associated with this key from the provided settings as int.
+     *
+     * @param settings the settings to get the value from.
+     * @return         an int value or the default value if the node doesn't exist or cannot be converted.
+     */
+    public int getInt(@NotNull Settings settings) {
+        Bound bound = this.bound;
+        if (bound == null || !isValid(settings, bound.settings, bound.node, bound.stamp)) {
+            final SettingsNode node = getNode(settings);
+            final int stamp = stampOf(settings, node);
+            final Integer value = node.as(Types.INTEGER, null);
+            bound = new Bound(settings, node, stamp, value == null ? def : value);
+            this.bound = bound;
+        }
+        return bound.value;
+    }
+
+    @Override
+    public @NotNull Integer get(@NotNull Settings settings) {
+        return getInt(settings);
+    }
+
+    private static final class Bound {
+
+        private final Settings settings;
+        private final SettingsNode node;
+        private final int stamp;
+        private final int value;
+
+        Bound(@NotNull Settings settings, @NotNull SettingsNode node, int stamp, int value) {
+            this.settings = settings;
+            this.node = node;
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
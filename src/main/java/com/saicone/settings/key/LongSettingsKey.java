@@ -0,0 +1,68 @@
+package com.saicone.settings.key;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Settings key that caches the node value as primitive long without boxing.
+ *
+ * @author Rubenicos
+ */
+public class LongSettingsKey extends SettingsKey<Long> {
+
+    private final long def;
+
+    private volatile Bound bound;
+
+    /**
+     * Constructs a long settings key with the given parameters.
+     *
+     * @param path the node path.
+     * @param def  the default value to return if the node value cannot be converted.
+     */
+    public LongSettingsKey(@NotNull NodePath path, long def) {
+        super(path, Types.LONG, def);
+        this.def = def;
+    }
+
+    /**
+     * Get the node value associated with this key from the provided settings as long.
+     *
+     * @param settings the settings to get the value from.
+     * @return         a long value or the default value if the node doesn't exist or cannot be converted.
+     */
+    public long getLong(@NotNull Settings settings) {
+        Bound bound = this.bound;
+        if (bound == null || !isValid(settings, bound.settings, bound.node, bound.stamp)) {
+            final SettingsNode node = getNode(settings);
+            final int stamp = stampOf(settings, node);
+            final Long value = node.as(Types.LONG, null);
+            bound = new Bound(settings, node, stamp, value == null ? def : value);
+            this.bound = bound;
+        }
+        return bound.value;
+    }
+
+    @Override
+    public @NotNull Long get(@NotNull Settings settings) {
+        return getLong(settings);
+    }
+
+    private static final class Bound {
+
+        private final Settings settings;
+        private final SettingsNode node;
+        private final int stamp;
+        private final long value;
+
+        Bound(@NotNull Settings settings, @NotNull SettingsNode node, int stamp, long value) {
+            this.settings = settings;
+            this.node = node;
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.saicone.settings.key;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.NodeValue;
+import com.saicone.types.TypeParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class that represents a typed handle to get a node value from settings.<br>
+ * The resolved node and its converted value are cached, and the cache is only refreshed
+ * when the node is modified or detached from settings, so any read after the first one
+ * doesn't walk the node path or convert the value again.
+ *
+ * @author Rubenicos
+ *
+ * @param <T> the value type.
+ */
+public class SettingsKey<T> {
+
+    private final NodePath path;
+    private final TypeParser<T> parser;
+    private final T def;
+
+    private volatile Bound<T> bound;
+
+    /**
+     * Create a settings key with the given parameters.
+     *
+     * @param path   the node path, split by dots.
+     * @param parser the parser to convert the node value.
+     * @return       a newly generated settings key.
+     * @param <T>    the value type.
+     */
+    @NotNull
+    public static <T> SettingsKey<T> of(@NotNull String path, @NotNull TypeParser<T> parser) {
+        return new SettingsKey<>(NodePath.parse(path), parser, null);
+    }
+
+    /**
+     * Create a settings key with the given parameters.
+     *
+     * @param path   the node path, split by dots.
+     * @param parser the parser to convert the node value.
+     * @param def    the default value to return if the node value cannot be converted.
+     * @return       a newly generated settings key.
+     * @param <T>    the value type.
+     */
+    @NotNull
+    public static <T> SettingsKey<T> of(@NotNull String path, @NotNull TypeParser<T> parser, @Nullable T def) {
+        return new SettingsKey<>(NodePath.parse(path), parser, def);
+    }
+
+    /**
+     * Create an int settings key with the given parameters.
+     *
+     * @param path the node path, split by dots.
+     * @param def  the default value to return if the node value cannot be converted.
+     * @return     a newly generated int settings key.
+     */
+    @NotNull
+    public static IntSettingsKey ofInt(@NotNull String path, int def) {
+        return new IntSettingsKey(NodePath.parse(path), def);
+    }
+
+    /**
+     * Create a long settings key with the given parameters.
+     *
+     * @param path the node path, split by dots.
+     * @param def  the default value to return if the node value cannot be converted.
+     * @return     a newly generated long settings key.
+     */
+    @NotNull
+    public static LongSettingsKey ofLong(@NotNull String path, long def) {
+        return new LongSettingsKey(NodePath.parse(path), def);
+    }
+
+    /**
+     * Create a double settings key with the given parameters.
+     *
+     * @param path the node path, split by dots.
+     * @param def  the default value to return if the node value cannot be converted.
+     * @return     a newly generated double settings key.
+     */
+    @NotNull
+    public static DoubleSettingsKey ofDouble(@NotNull String path, double def) {
+        return new DoubleSettingsKey(NodePath.parse(path), def);
+    }
+
+    /**
+     * Create a boolean settings key with the given parameters.
+     *
+     * @param path the node path, split by dots.
+     * @param def  the default value to return if the node value cannot be converted.
+     * @return     a newly generated boolean settings key.
+     */
+    @NotNull
+    public static BooleanSettingsKey ofBoolean(@NotNull String path, boolean def) {
+        return new BooleanSettingsKey(NodePath.parse(path), def);
+    }
+
+    /**
+     * Constructs a settings key with the given parameters.
+     *
+     * @param path   the node path.
+     * @param parser the parser to convert the node value.
+     * @param def    the default value to return if the node value cannot be converted.
+     */
+    public SettingsKey(@NotNull NodePath path, @NotNull TypeParser<T> parser, @Nullable T def) {
+        this.path = path;
+        this.parser = parser;
+        this.def = def;
+    }
+
+    /**
+     * Get the node path of this key.
+     *
+     * @return a node path.
+     */
+    @NotNull
+    public NodePath getPath() {
+        return path;
+    }
+
+    /**
+     * Get the parser used to convert the node value.
+     *
+     * @return a type parser.
+     */
+    @NotNull
+    public TypeParser<T> getParser() {
+        return parser;
+    }
+
+    /**
+     * Get the default value of this key.
+     *
+     * @return the default value, null if it's not defined.
+     */
+    @Nullable
+    public T getDefault() {
+        return def;
+    }
+
+    /**
+     * Get the node associated with this key from the provided settings.
+     *
+     * @param settings the settings to get the node from.
+     * @return         a node from settings or the {@link NodeValue#empty()} node if doesn't exist.
+     */
+    @NotNull
+    public SettingsNode getNode(@NotNull Settings settings) {
+        return settings.find(path);
+    }
+
+    /**
+     * Get the converted node value associated with this key from the provided settings.
+     *
+     * @param settings the settings to get the value from.
+     * @return         a converted value or the default value if the node doesn't exist or cannot be converted.
+     */
+    @Nullable
+    public T get(@NotNull Settings settings) {
+        Bound<T> bound = this.bound;
+        if (bound == null || !bound.isValid(settings)) {
+            final SettingsNode node = getNode(settings);
+            final int stamp = stampOf(settings, node);
+            bound = new Bound<>(settings, node, stamp, node.as(parser, def));
+            this.bound = bound;
+        }
+        return bound.value;
+    }
+
+    /**
+     * Get the stamp that must be compared to detect a modification on the provided node.
+     *
+     * @param settings the settings where the node come from.
+     * @param node     the resolved node.
+     * @return         the node stamp, or settings stamp if the node doesn't exist.
+     */
+    protected static int stampOf(@NotNull Settings settings, @NotNull SettingsNode node) {
+        return node == NodeValue.empty() ? settings.getStamp() : node.getStamp();
+    }
+
+    /**
+     * Check if a previously resolved node is still valid for the provided settings.
+     *
+     * @param settings the settings to get the value from.
+     * @param resolved the settings that was used to resolve the node.
+     * @param node     the resolved node.
+     * @param stamp    the stamp at the moment the node was resolved.
+     * @return         true if the node wasn't modified since it was resolved.
+     */
+    protected static boolean isValid(@NotNull Settings settings, @NotNull Settings resolved, @NotNull SettingsNode node, int stamp) {
+        return settings == resolved && stampOf(settings, node) == stamp;
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+
+    private static final class Bound<T> {
+
+        private final Settings settings;
+        private final SettingsNode node;
+        private final int stamp;
+        private final T value;
+
+        Bound(@NotNull Settings settings, @NotNull SettingsNode node, int stamp, @Nullable T value) {
+            this.settings = settings;
+            this.node = node;
+            this.stamp = stamp;
+            this.value = value;
+        }
+
+        boolean isValid(@NotNull Settings settings) {
+            return SettingsKey.isValid(settings, this.settings, node, stamp);
+        }
+    }
+}
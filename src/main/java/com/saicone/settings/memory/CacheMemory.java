@@ -89,76 +89,146 @@ public abstract class CacheMemory implements SettingsMemory {
     static class CaffeineCache extends CacheMemory {
 
         private final com.github.benmanes.caffeine.cache.Cache<String, SettingsNode> cache;
+        private final NodeIdIndex index = new NodeIdIndex();
+        private final MemoryStats stats = new MemoryStats();
 
         CaffeineCache(long time, @NotNull TimeUnit unit) {
             super(time, unit);
-            cache = com.github.benmanes.caffeine.cache.Caffeine.newBuilder().expireAfterAccess(time, unit).build();
+            cache = com.github.benmanes.caffeine.cache.Caffeine.newBuilder()
+                    .expireAfterAccess(time, unit)
+                    .<String, SettingsNode>evictionListener((id, node, cause) -> {
+                        if (id != null) {
+                            stats.recordEviction(id);
+                            if (node != null) {
+                                index.remove(node, id);
+                            }
+                        }
+                    })
+                    .build();
         }
 
         @Override
         public @Nullable SettingsNode get(@NotNull String id) {
-            return cache.getIfPresent(id);
+            final SettingsNode node = cache.getIfPresent(id);
+            if (node == null) {
+                stats.recordMiss(id);
+            } else {
+                stats.recordHit(id);
+            }
+            return node;
         }
 
         @Override
         public void save(@NotNull String id, @NotNull SettingsNode node) {
-            cache.put(id, node);
+            index.add(node, id);
+            final SettingsNode previous = cache.asMap().put(id, node);
+            if (previous != null && previous != node) {
+                index.remove(previous, id);
+            }
         }
 
         @Override
         public void remove(@NotNull String id) {
-            cache.invalidate(id);
+            final SettingsNode previous = cache.asMap().remove(id);
+            if (previous != null) {
+                index.remove(previous, id);
+            }
         }
 
         @Override
-        @SuppressWarnings("all")
         public void remove(@NotNull SettingsNode node) {
-            while (cache.asMap().values().remove(node)) {
-                /** intentionally empty */
+            for (String id : index.remove(node)) {
+                cache.asMap().remove(id, node);
             }
         }
 
         @Override
         public void clear() {
             cache.invalidateAll();
+            index.clear();
+        }
+
+        @Override
+        public long size() {
+            return cache.estimatedSize();
+        }
+
+        @Override
+        public @NotNull MemoryStats getStats() {
+            return stats;
         }
     }
 
     static class GuavaCache extends CacheMemory {
 
         private final com.google.common.cache.Cache<String, SettingsNode> cache;
+        private final NodeIdIndex index = new NodeIdIndex();
+        private final MemoryStats stats = new MemoryStats();
 
         GuavaCache(long time, @NotNull TimeUnit unit) {
             super(time, unit);
-            cache = com.google.common.cache.CacheBuilder.newBuilder().expireAfterAccess(time, unit).build();
+            cache = com.google.common.cache.CacheBuilder.newBuilder()
+                    .expireAfterAccess(time, unit)
+                    .<String, SettingsNode>removalListener(notification -> {
+                        if (notification.wasEvicted() && notification.getKey() != null) {
+                            stats.recordEviction(notification.getKey());
+                            if (notification.getValue() != null) {
+                                index.remove(notification.getValue(), notification.getKey());
+                            }
+                        }
+                    })
+                    .build();
         }
 
         @Override
         public @Nullable SettingsNode get(@NotNull String id) {
-            return cache.getIfPresent(id);
+            final SettingsNode node = cache.getIfPresent(id);
+            if (node == null) {
+                stats.recordMiss(id);
+            } else {
+                stats.recordHit(id);
+            }
+            return node;
         }
 
         @Override
         public void save(@NotNull String id, @NotNull SettingsNode node) {
-            cache.put(id, node);
+            index.add(node, id);
+            final SettingsNode previous = cache.asMap().put(id, node);
+            if (previous != null && previous != node) {
+                index.remove(previous, id);
+            }
         }
 
         @Override
         public void remove(@NotNull String id) {
-            cache.invalidate(id);
+            final SettingsNode previous = cache.asMap().remove(id);
+            if (previous != null) {
+                index.remove(previous, id);
+            }
         }
 
         @Override
-        @SuppressWarnings("all")
         public void remove(@NotNull SettingsNode node) {
-            while (cache.asMap().values().remove(node)) {
-                /** intentionally empty */
+            for (String id : index.remove(node)) {
+                cache.asMap().remove(id, node);
             }
         }
 
         @Override
         public void clear() {
             cache.invalidateAll();
+            index.clear();
+        }
+
+        @Override
+        public long size() {
+            return cache.size();
+        }
+
+        @Override
+        public @NotNull MemoryStats getStats() {
+            return stats;
         }
     }
 }
@@ -0,0 +1,512 @@
+package com.saicone.settings.memory;
+
+import com.saicone.settings.SettingsMemory;
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Class to save settings nodes into a concurrent map without any external dependency.<br>
+ * This memory can be bounded by size, in that case any newly saved node is only admitted if its
+ * estimated access frequency is higher than the frequency of the sampled eviction victim, so nodes
+ * that are rarely accessed don't replace frequently accessed nodes.<br>
+ * Optionally, the saved nodes can expire after access or be referenced with soft or weak
+ * references, so detached nodes can be collected.<br>
+ * Readers never acquire any lock, eviction is made by a single writer at time.
+ *
+ * @author Rubenicos
+ */
+public class ConcurrentMemory implements SettingsMemory {
+
+    private static final int SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+    private final NodeIdIndex index = new NodeIdIndex();
+    // Identity hash code -> Set of ids, used for non-strong entries
+    private final ConcurrentHashMap<Integer, Set<String>> referenceIndex = new ConcurrentHashMap<>();
+    private final MemoryStats stats = new MemoryStats();
+    private final long maximumSize;
+    private final FrequencySketch sketch;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private long expireAfterAccess;
+    private Strength strength = Strength.STRONG;
+    private ReferenceQueue<SettingsNode> queue;
+
+    // Eviction cursor, guarded by eviction lock
+    private Iterator<Entry> cursor;
+
+    /**
+     * Constructs an unbounded concurrent memory.
+     */
+    public ConcurrentMemory() {
+        this(Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a concurrent memory bounded by the given maximum size.
+     *
+     * @param maximumSize the maximum number of saved nodes.
+     */
+    public ConcurrentMemory(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size cannot be negative");
+        }
+        this.maximumSize = maximumSize;
+        this.sketch = maximumSize == Long.MAX_VALUE ? null : new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Get the maximum number of saved nodes.
+     *
+     * @return a size number, {@link Long#MAX_VALUE} if the memory is unbounded.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Set the duration that any saved node is kept after its last access.
+     *
+     * @param duration the max duration to keep nodes, 0 or less to disable expiration.
+     * @param unit     the duration time unit.
+     * @return         the effective memory object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("_, _ -> this")
+    public ConcurrentMemory expireAfterAccess(long duration, @NotNull TimeUnit unit) {
+        this.expireAfterAccess = duration > 0 ? unit.toNanos(duration) : 0;
+        return this;
+    }
+
+    /**
+     * Make any newly saved node to be referenced with a soft reference, so it can be
+     * collected in response to memory demand.
+     *
+     * @return the effective memory object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("-> this")
+    public ConcurrentMemory softValues() {
+        return setStrength(Strength.SOFT);
+    }
+
+    /**
+     * Make any newly saved node to be referenced with a weak reference, so it can be
+     * collected when the node is no longer referenced by its settings.
+     *
+     * @return the effective memory object in this operation, normally this instance.
+     */
+    @NotNull
+    @Contract("-> this")
+    public ConcurrentMemory weakValues() {
+        return setStrength(Strength.WEAK);
+    }
+
+    @NotNull
+    private ConcurrentMemory setStrength(@NotNull Strength strength) {
+        evictionLock.lock();
+        try {
+            this.strength = strength;
+            if (this.queue == null) {
+                this.queue = new ReferenceQueue<>();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return this;
+    }
+
+    @Override
+    public @Nullable SettingsNode get(@NotNull String id) {
+        if (sketch != null) {
+            sketch.increment(id.hashCode());
+        }
+        final Entry entry = map.get(id);
+        if (entry == null) {
+            stats.recordMiss(id);
+            return null;
+        }
+        final SettingsNode node = entry.get();
+        if (node == null) {
+            evict(entry);
+            stats.recordMiss(id);
+            return null;
+        }
+        if (expireAfterAccess > 0) {
+            final long now = System.nanoTime();
+            if (now - entry.accessTime > expireAfterAccess) {
+                evict(entry);
+                stats.recordMiss(id);
+                return null;
+            }
+            entry.accessTime = now;
+        }
+        stats.recordHit(id);
+        return node;
+    }
+
+    @Override
+    public void save(@NotNull String id, @NotNull SettingsNode node) {
+        final Entry entry = new Entry(id, node, strength, queue);
+        if (entry.isStrong()) {
+            index.add(node, id);
+        } else {
+            referenceIndex.computeIfAbsent(entry.hash, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        final Entry previous = map.put(id, entry);
+        if (previous != null) {
+            final SettingsNode previousNode = previous.get();
+            if (previous.isStrong()) {
+                if (previousNode != null && previousNode != node) {
+                    index.remove(previousNode, id);
+                }
+            } else if (entry.isStrong() || previous.hash != entry.hash) {
+                unindex(previous);
+            }
+        }
+        if (sketch != null) {
+            sketch.increment(id.hashCode());
+        }
+        maintain(previous == null ? entry : null);
+    }
+
+    @Override
+    public void remove(@NotNull String id) {
+        final Entry entry = map.remove(id);
+        if (entry != null) {
+            unindex(entry);
+        }
+    }
+
+    @Override
+    public void remove(@NotNull SettingsNode node) {
+        for (String id : index.remove(node)) {
+            final Entry entry = map.get(id);
+            if (entry != null && entry.get() == node) {
+                map.remove(id, entry);
+            }
+        }
+        if (queue != null) {
+            // Non-strong entries are indexed by identity hash code, so the index doesn't reference any node
+            final List<Entry> removed = new ArrayList<>();
+            referenceIndex.computeIfPresent(System.identityHashCode(node), (hash, ids) -> {
+                ids.removeIf(id -> {
+                    final Entry entry = map.get(id);
+                    if (entry == null || entry.isStrong() || entry.hash != hash) {
+                        // Outdated id
+                        return true;
+                    }
+                    if (entry.get() == node) {
+                        removed.add(entry);
+                        return true;
+                    }
+                    return false;
+                });
+                return ids.isEmpty() ? null : ids;
+            });
+            for (Entry entry : removed) {
+                map.remove(entry.id, entry);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+        index.clear();
+        referenceIndex.clear();
+    }
+
+    @Override
+    public long size() {
+        return map.size();
+    }
+
+    @Override
+    public @NotNull MemoryStats getStats() {
+        return stats;
+    }
+
+    private void evict(@NotNull Entry entry) {
+        if (map.remove(entry.id, entry)) {
+            stats.recordEviction(entry.id);
+            unindex(entry);
+        }
+    }
+
+    private void unindex(@NotNull Entry entry) {
+        if (entry.isStrong()) {
+            index.remove((SettingsNode) entry.value, entry.id);
+        } else {
+            referenceIndex.computeIfPresent(entry.hash, (hash, ids) -> {
+                ids.remove(entry.id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void maintain(@Nullable Entry candidate) {
+        if ((queue == null && expireAfterAccess <= 0 && map.size() <= maximumSize) || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            if (queue != null) {
+                Reference<? extends SettingsNode> reference;
+                while ((reference = queue.poll()) != null) {
+                    final String id = ((NodeReference) reference).getId();
+                    final Entry entry = map.get(id);
+                    if (entry != null && entry.value == reference) {
+                        evict(entry);
+                    }
+                }
+            }
+            if (expireAfterAccess > 0) {
+                final long now = System.nanoTime();
+                for (int i = 0; i < SAMPLE_SIZE; i++) {
+                    final Entry entry = next();
+                    if (entry == null) {
+                        break;
+                    }
+                    if (now - entry.accessTime > expireAfterAccess) {
+                        evict(entry);
+                    }
+                }
+            }
+            while (map.size() > maximumSize) {
+                Entry victim = sample(candidate);
+                // Collected victims are evicted without taking part in admission
+                if (candidate != null && (victim == null || victim.get() != null)) {
+                    // TinyLFU admission, the candidate is rejected if it's not accessed more frequently than the victim
+                    if (map.get(candidate.id) == candidate && (victim == null || frequency(candidate) <= frequency(victim))) {
+                        victim = candidate;
+                    }
+                    candidate = null;
+                }
+                if (victim == null) {
+                    break;
+                }
+                evict(victim);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Nullable
+    private Entry sample(@Nullable Entry candidate) {
+        Entry victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            final Entry entry = next();
+            if (entry == null) {
+                break;
+            }
+            if (entry == candidate) {
+                continue;
+            }
+            if (entry.get() == null) {
+                return entry;
+            }
+            final int frequency = frequency(entry);
+            if (frequency < victimFrequency || (frequency == victimFrequency && entry.accessTime < victim.accessTime)) {
+                victim = entry;
+                victimFrequency = frequency;
+            }
+        }
+        return victim;
+    }
+
+    private int frequency(@NotNull Entry entry) {
+        return sketch == null ? 0 : sketch.frequency(entry.id.hashCode());
+    }
+
+    @Nullable
+    private Entry next() {
+        if (cursor == null || !cursor.hasNext()) {
+            cursor = map.values().iterator();
+            if (!cursor.hasNext()) {
+                return null;
+            }
+        }
+        return cursor.next();
+    }
+
+    private enum Strength {
+        STRONG,
+        SOFT,
+        WEAK
+    }
+
+    private interface NodeReference {
+        @NotNull
+        String getId();
+    }
+
+    private static final class SoftNodeReference extends SoftReference<SettingsNode> implements NodeReference {
+
+        private final String id;
+
+        SoftNodeReference(@NotNull String id, @NotNull SettingsNode node, @NotNull ReferenceQueue<SettingsNode> queue) {
+            super(node, queue);
+            this.id = id;
+        }
+
+        @Override
+        public @NotNull String getId() {
+            return id;
+        }
+    }
+
+    private static final class WeakNodeReference extends WeakReference<SettingsNode> implements NodeReference {
+
+        private final String id;
+
+        WeakNodeReference(@NotNull String id, @NotNull SettingsNode node, @NotNull ReferenceQueue<SettingsNode> queue) {
+            super(node, queue);
+            this.id = id;
+        }
+
+        @Override
+        public @NotNull String getId() {
+            return id;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String id;
+        // SettingsNode or Reference<SettingsNode>
+        private final Object value;
+        // Node identity hash code, only used for non-strong entries
+        private final int hash;
+        private volatile long accessTime;
+
+        Entry(@NotNull String id, @NotNull SettingsNode node, @NotNull Strength strength, @Nullable ReferenceQueue<SettingsNode> queue) {
+            this.id = id;
+            switch (strength) {
+                case SOFT:
+                    this.value = new SoftNodeReference(id, node, queue);
+                    break;
+                case WEAK:
+                    this.value = new WeakNodeReference(id, node, queue);
+                    break;
+                case STRONG:
+                default:
+                    this.value = node;
+                    break;
+            }
+            this.hash = value == node ? 0 : System.identityHashCode(node);
+            this.accessTime = System.nanoTime();
+        }
+
+        boolean isStrong() {
+            return value instanceof SettingsNode;
+        }
+
+        @Nullable
+        @SuppressWarnings("unchecked")
+        SettingsNode get() {
+            if (value instanceof SettingsNode) {
+                return (SettingsNode) value;
+            }
+            return ((Reference<SettingsNode>) value).get();
+        }
+    }
+
+    /**
+     * Count-min sketch with 4-bit counters that estimates the access frequency of ids.<br>
+     * Every counter is halved after a number of additions, so old frequencies decay over time.
+     */
+    private static final class FrequencySketch {
+
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+        private final AtomicLongArray table;
+        private final int mask;
+        private final int sampleSize;
+        private final AtomicInteger additions = new AtomicInteger();
+
+        FrequencySketch(long maximumSize) {
+            final int size = (int) Math.min(1 << 24, Math.max(16, Long.highestOneBit(Math.max(1, maximumSize) - 1) << 1));
+            this.table = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.sampleSize = size * 10;
+        }
+
+        int frequency(int hash) {
+            final int spread = spread(hash);
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(spread, i);
+                final int shift = ((spread >>> (i << 3)) & 15) << 2;
+                frequency = Math.min(frequency, (int) ((table.get(index) >>> shift) & 15L));
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+            final int spread = spread(hash);
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(spread, i);
+                final int shift = ((spread >>> (i << 3)) & 15) << 2;
+                added |= incrementAt(index, shift);
+            }
+            if (added && additions.incrementAndGet() >= sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int shift) {
+            final long mask = 15L << shift;
+            long value;
+            do {
+                value = table.get(index);
+                if ((value & mask) == mask) {
+                    // Saturated counter
+                    return false;
+                }
+            } while (!table.compareAndSet(index, value, value + (1L << shift)));
+            return true;
+        }
+
+        private void reset() {
+            additions.set(0);
+            for (int i = 0; i < table.length(); i++) {
+                long value;
+                do {
+                    value = table.get(i);
+                } while (!table.compareAndSet(i, value, (value >>> 1) & RESET_MASK));
+            }
+        }
+
+        private int indexOf(int spread, int i) {
+            long hash = (spread + SEEDS[i]) * SEEDS[i];
+            hash += (hash >>> 32);
+            return ((int) hash) & mask;
+        }
+
+        private static int spread(int hash) {
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            return (hash >>> 16) ^ hash;
+        }
+    }
+}
@@ -16,6 +16,8 @@ import java.util.Map;
 public class MapMemory implements SettingsMemory {
 
     private final Map<String, SettingsNode> map;
+    private final NodeIdIndex index = new NodeIdIndex();
+    private final MemoryStats stats = new MemoryStats();
 
     /**
      * Constructs a map memory to save nodes.
@@ -31,33 +33,59 @@ public class MapMemory implements SettingsMemory {
      */
     public MapMemory(@NotNull Map<String, SettingsNode> map) {
         this.map = map;
+        for (Map.Entry<String, SettingsNode> entry : map.entrySet()) {
+            this.index.add(entry.getValue(), entry.getKey());
+        }
     }
 
     @Override
     public @Nullable SettingsNode get(@NotNull String id) {
-        return map.get(id);
+        final SettingsNode node = map.get(id);
+        if (node == null) {
+            stats.recordMiss(id);
+        } else {
+            stats.recordHit(id);
+        }
+        return node;
     }
 
     @Override
     public void save(@NotNull String id, @NotNull SettingsNode node) {
-        map.put(id, node);
+        final SettingsNode previous = map.put(id, node);
+        if (previous != null && previous != node) {
+            index.remove(previous, id);
+        }
+        index.add(node, id);
     }
 
     @Override
     public void remove(@NotNull String id) {
-        map.remove(id);
+        final SettingsNode previous = map.remove(id);
+        if (previous != null) {
+            index.remove(previous, id);
+        }
     }
 
     @Override
-    @SuppressWarnings("all")
     public void remove(@NotNull SettingsNode node) {
-        while (map.values().remove(node)) {
-            /** intentionally empty */
+        for (String id : index.remove(node)) {
+            map.remove(id, node);
         }
     }
 
     @Override
     public void clear() {
         map.clear();
+        index.clear();
+    }
+
+    @Override
+    public long size() {
+        return map.size();
+    }
+
+    @Override
+    public @NotNull MemoryStats getStats() {
+        return stats;
     }
 }
@@ -0,0 +1,285 @@
+package com.saicone.settings.memory;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to record settings memory usage statistics.<br>
+ * Every statistic is separated by the lookup kind, which is detected from the
+ * saved path id prefix, such as {@code $IgnoreCase.} or {@code $RegExp.}.<br>
+ * Counters are based on striped adders, so recording any statistic from multiple threads
+ * doesn't cause contention.
+ *
+ * @author Rubenicos
+ */
+public class MemoryStats {
+
+    private final LongAdder[] hits = adders();
+    private final LongAdder[] misses = adders();
+    private final LongAdder[] loads = adders();
+    private final LongAdder[] loadTime = adders();
+    private final LongAdder[] evictions = adders();
+
+    @NotNull
+    private static LongAdder[] adders() {
+        final LongAdder[] adders = new LongAdder[Kind.VALUES.length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Record a successful memory lookup.
+     *
+     * @param id the node path id.
+     */
+    public void recordHit(@NotNull String id) {
+        hits[Kind.of(id).ordinal()].increment();
+    }
+
+    /**
+     * Record a failed memory lookup.
+     *
+     * @param id the node path id.
+     */
+    public void recordMiss(@NotNull String id) {
+        misses[Kind.of(id).ordinal()].increment();
+    }
+
+    /**
+     * Record a node load after failed memory lookup.
+     *
+     * @param id       the node path id.
+     * @param duration the time in nanoseconds that was spent loading the node.
+     */
+    public void recordLoad(@NotNull String id, long duration) {
+        final int kind = Kind.of(id).ordinal();
+        loads[kind].increment();
+        loadTime[kind].add(duration);
+    }
+
+    /**
+     * Record a saved node eviction.<br>
+     * Any eviction is a node removal that was not requested by the memory user.
+     *
+     * @param id the node path id.
+     */
+    public void recordEviction(@NotNull String id) {
+        evictions[Kind.of(id).ordinal()].increment();
+    }
+
+    /**
+     * Get the number of successful lookups.
+     *
+     * @return a lookup count.
+     */
+    public long getHitCount() {
+        return sum(hits);
+    }
+
+    /**
+     * Get the number of successful lookups by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     a lookup count.
+     */
+    public long getHitCount(@NotNull Kind kind) {
+        return hits[kind.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of failed lookups.
+     *
+     * @return a lookup count.
+     */
+    public long getMissCount() {
+        return sum(misses);
+    }
+
+    /**
+     * Get the number of failed lookups by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     a lookup count.
+     */
+    public long getMissCount(@NotNull Kind kind) {
+        return misses[kind.ordinal()].sum();
+    }
+
+    /**
+     * Get the ratio of successful lookups.
+     *
+     * @return a number between 0 and 1, or 1 if no lookup was recorded.
+     */
+    public double getHitRate() {
+        return rate(getHitCount(), getMissCount());
+    }
+
+    /**
+     * Get the ratio of successful lookups by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     a number between 0 and 1, or 1 if no lookup was recorded.
+     */
+    public double getHitRate(@NotNull Kind kind) {
+        return rate(getHitCount(kind), getMissCount(kind));
+    }
+
+    /**
+     * Get the number of loaded nodes.
+     *
+     * @return a load count.
+     */
+    public long getLoadCount() {
+        return sum(loads);
+    }
+
+    /**
+     * Get the number of loaded nodes by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     a load count.
+     */
+    public long getLoadCount(@NotNull Kind kind) {
+        return loads[kind.ordinal()].sum();
+    }
+
+    /**
+     * Get the total time spent loading nodes.
+     *
+     * @return a duration in nanoseconds.
+     */
+    public long getTotalLoadTime() {
+        return sum(loadTime);
+    }
+
+    /**
+     * Get the total time spent loading nodes by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     a duration in nanoseconds.
+     */
+    public long getTotalLoadTime(@NotNull Kind kind) {
+        return loadTime[kind.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of evicted nodes.
+     *
+     * @return an eviction count.
+     */
+    public long getEvictionCount() {
+        return sum(evictions);
+    }
+
+    /**
+     * Get the number of evicted nodes by the provided kind.
+     *
+     * @param kind the lookup kind.
+     * @return     an eviction count.
+     */
+    public long getEvictionCount(@NotNull Kind kind) {
+        return evictions[kind.ordinal()].sum();
+    }
+
+    /**
+     * Reset every recorded statistic.
+     */
+    public void reset() {
+        for (Kind kind : Kind.VALUES) {
+            final int i = kind.ordinal();
+            hits[i].reset();
+            misses[i].reset();
+            loads[i].reset();
+            loadTime[i].reset();
+            evictions[i].reset();
+        }
+    }
+
+    private static long sum(@NotNull LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    private static double rate(long hits, long misses) {
+        final long total = hits + misses;
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("MemoryStats{");
+        for (Kind kind : Kind.VALUES) {
+            if (kind.ordinal() > 0) {
+                builder.append(", ");
+            }
+            builder.append(kind.name()).append("={")
+                    .append("hits=").append(getHitCount(kind))
+                    .append(", misses=").append(getMissCount(kind))
+                    .append(", loads=").append(getLoadCount(kind))
+                    .append(", loadTime=").append(getTotalLoadTime(kind))
+                    .append(", evictions=").append(getEvictionCount(kind))
+                    .append('}');
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Settings lookup kind.
+     */
+    public enum Kind {
+        /**
+         * Exact key path lookup.
+         */
+        EXACT(""),
+        /**
+         * Key path lookup ignoring case considerations.
+         */
+        IGNORE_CASE("$IgnoreCase."),
+        /**
+         * Regex key path lookup.
+         */
+        REGEX("$RegExp.");
+
+        static final Kind[] VALUES = values();
+
+        private final String prefix;
+
+        Kind(@NotNull String prefix) {
+            this.prefix = prefix;
+        }
+
+        /**
+         * Get the path id prefix used by this kind.
+         *
+         * @return a path id prefix.
+         */
+        @NotNull
+        public String getPrefix() {
+            return prefix;
+        }
+
+        /**
+         * Get the lookup kind of the provided path id.
+         *
+         * @param id the node path id.
+         * @return   a lookup kind.
+         */
+        @NotNull
+        public static Kind of(@NotNull String id) {
+            if (!id.isEmpty() && id.charAt(0) == '$') {
+                if (id.startsWith(REGEX.prefix)) {
+                    return REGEX;
+                } else if (id.startsWith(IGNORE_CASE.prefix)) {
+                    return IGNORE_CASE;
+                }
+            }
+            return EXACT;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.saicone.settings.memory;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index of saved nodes to their path ids.<br>
+ * Nodes are compared by identity, so getting the ids of any node doesn't compare node values.
+ *
+ * @author Rubenicos
+ */
+final class NodeIdIndex {
+
+    // Node -> String id or Set of ids
+    private final Map<SettingsNode, Object> ids = new IdentityHashMap<>();
+
+    /**
+     * Add a path id associated with the given node.
+     *
+     * @param node the saved node.
+     * @param id   the node path id.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void add(@NotNull SettingsNode node, @NotNull String id) {
+        final Object current = ids.get(node);
+        if (current == null) {
+            ids.put(node, id);
+        } else if (current instanceof String) {
+            if (!current.equals(id)) {
+                final Set<String> set = new HashSet<>();
+                set.add((String) current);
+                set.add(id);
+                ids.put(node, set);
+            }
+        } else {
+            ((Set<String>) current).add(id);
+        }
+    }
+
+    /**
+     * Remove a path id associated with the given node.
+     *
+     * @param node the saved node.
+     * @param id   the node path id.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized void remove(@NotNull SettingsNode node, @NotNull String id) {
+        final Object current = ids.get(node);
+        if (current == null) {
+            return;
+        }
+        if (current instanceof String) {
+            if (current.equals(id)) {
+                ids.remove(node);
+            }
+        } else {
+            final Set<String> set = (Set<String>) current;
+            if (set.remove(id) && set.isEmpty()) {
+                ids.remove(node);
+            }
+        }
+    }
+
+    /**
+     * Remove every path id associated with the given node.
+     *
+     * @param node the saved node.
+     * @return     a collection of removed path ids.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    synchronized Collection<String> remove(@NotNull SettingsNode node) {
+        final Object current = ids.remove(node);
+        if (current == null) {
+            return Collections.emptySet();
+        }
+        if (current instanceof String) {
+            return Collections.singleton((String) current);
+        }
+        return (Set<String>) current;
+    }
+
+    /**
+     * Clear every saved node.
+     */
+    synchronized void clear() {
+        ids.clear();
+    }
+}
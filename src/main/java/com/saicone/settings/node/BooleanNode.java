@@ -0,0 +1,70 @@
+package com.saicone.settings.node;
+
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class to handle boolean values as settings node without boxing.
+ *
+ * @author Rubenicos
+ */
+public class BooleanNode extends PrimitiveNode {
+
+    private boolean value;
+
+    /**
+     * Constructs a boolean node with the given value.
+     *
+     * @param value the boolean value.
+     */
+    public BooleanNode(boolean value) {
+        this(null, null, value);
+    }
+
+    /**
+     * Constructs a boolean node with the given parameters.
+     *
+     * @param parent the parent node.
+     * @param key    the node key.
+     * @param value  the boolean value.
+     */
+    public BooleanNode(@Nullable MapNode parent, @Nullable String key, boolean value) {
+        super(parent, key);
+        this.value = value;
+    }
+
+    /**
+     * Get the node value as boolean.<br>
+     * If the node value is the primitive one, no conversion is made.
+     *
+     * @return a boolean value, false if the value cannot be converted.
+     */
+    public boolean getBoolean() {
+        if (isPrimitive()) {
+            return value;
+        }
+        final Boolean parsed = asBoolean();
+        return parsed == null ? false : parsed;
+    }
+
+    @Override
+    protected @NotNull TypeParser<?> getParser() {
+        return Types.BOOLEAN;
+    }
+
+    @Override
+    protected @NotNull Object box() {
+        return value;
+    }
+
+    @Override
+    protected boolean unbox(@Nullable Object value) {
+        if (value instanceof Boolean) {
+            this.value = (Boolean) value;
+            return true;
+        }
+        return false;
+    }
+}
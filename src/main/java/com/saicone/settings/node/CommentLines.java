@@ -0,0 +1,80 @@
+package com.saicone.settings.node;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of comment lines backed by a plain array.<br>
+ * Since comment lines cannot be modified, the same instance is shared between nodes
+ * instead of being copied every time a comment is merged into another node.
+ *
+ * @author Rubenicos
+ */
+final class CommentLines extends AbstractList<String> implements RandomAccess {
+
+    private static final CommentLines EMPTY = new CommentLines(new String[0]);
+    // Blank line used as separator between keys, the most common comment
+    private static final CommentLines BLANK = new CommentLines(new String[] { "" });
+
+    private final String[] lines;
+
+    /**
+     * Get the provided comment as immutable comment lines.
+     *
+     * @param comment the comment to convert.
+     * @return        comment lines with the same content, or the provided comment itself if it's already converted.
+     */
+    @Nullable
+    @Contract("!null -> !null")
+    static CommentLines of(@Nullable List<String> comment) {
+        if (comment == null || comment instanceof CommentLines) {
+            return (CommentLines) comment;
+        }
+        if (comment.isEmpty()) {
+            return EMPTY;
+        }
+        final String[] lines = comment.toArray(new String[0]);
+        if (lines.length == 1 && "".equals(lines[0])) {
+            return BLANK;
+        }
+        return new CommentLines(lines);
+    }
+
+    private CommentLines(@NotNull String[] lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    public String get(int index) {
+        return lines[index];
+    }
+
+    @Override
+    public int size() {
+        return lines.length;
+    }
+
+    @Override
+    public Object @NotNull [] toArray() {
+        return Arrays.copyOf(lines, lines.length, Object[].class);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof CommentLines) {
+            return Arrays.equals(lines, ((CommentLines) o).lines);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(lines);
+    }
+}
@@ -0,0 +1,373 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Lightweight read-only view of a node inside {@link CompiledSettings}.<br>
+ * The view only holds the node id, so it can be created on every lookup and discarded after use.<br>
+ * Since compiled nodes are not regular map nodes, {@link #getParent()} always return null and
+ * {@link #getParentNode()} must be used instead, any method that walks through parent nodes
+ * is implemented using compiled views.<br>
+ * Compiled nodes cannot be cast into regular nodes, any {@code as} node method throws an exception,
+ * {@link #copy()} or {@link CompiledSettings#toMapNode()} must be used to get regular settings nodes.
+ *
+ * @author Rubenicos
+ */
+public final class CompiledNode implements SettingsNode {
+
+    private final CompiledSettings settings;
+    private final int id;
+
+    CompiledNode(@NotNull CompiledSettings settings, int id) {
+        this.settings = settings;
+        this.id = id;
+    }
+
+    @Override
+    public boolean isObject() {
+        final byte type = settings.type(id);
+        return type != CompiledSettings.MAP && type != CompiledSettings.LIST;
+    }
+
+    @Override
+    public boolean isMap() {
+        return settings.type(id) == CompiledSettings.MAP;
+    }
+
+    @Override
+    public boolean isList() {
+        return settings.type(id) == CompiledSettings.LIST;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public boolean isRoot() {
+        return settings.parent(id) < 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final byte type = settings.type(id);
+        if (type == CompiledSettings.MAP || type == CompiledSettings.LIST) {
+            return settings.count(id) == 0;
+        }
+        return type == CompiledSettings.NULL;
+    }
+
+    @Override
+    public boolean hasTopComment() {
+        return settings.topComment(id) != null;
+    }
+
+    @Override
+    public boolean hasSideComment() {
+        return settings.sideComment(id) != null;
+    }
+
+    /**
+     * Compiled nodes don't have any regular parent node.
+     *
+     * @return always null.
+     * @see #getParentNode()
+     */
+    @Override
+    public MapNode getParent() {
+        return null;
+    }
+
+    /**
+     * Get the parent map or list view of this node.
+     *
+     * @return a compiled node view, null if this node is the root.
+     */
+    @Nullable
+    public CompiledNode getParentNode() {
+        final int parent = settings.parent(id);
+        return parent < 0 ? null : new CompiledNode(settings, parent);
+    }
+
+    @Override
+    public String getKey() {
+        return settings.key(id);
+    }
+
+    /**
+     * Get the current node value.<br>
+     * Maps and lists are returned as unmodifiable views of compiled nodes.
+     *
+     * @return a node value.
+     */
+    @Override
+    public Object getValue() {
+        final byte type = settings.type(id);
+        if (type == CompiledSettings.MAP) {
+            return new MapView();
+        } else if (type == CompiledSettings.LIST) {
+            return new ListView();
+        }
+        return settings.value(id);
+    }
+
+    @Override
+    public Object getSourceValue() {
+        return getValue();
+    }
+
+    @Override
+    public List<String> getTopComment() {
+        return settings.topComment(id);
+    }
+
+    @Override
+    public List<String> getSideComment() {
+        return settings.sideComment(id);
+    }
+
+    @Override
+    public @NotNull SettingsNode getRoot() {
+        return settings.getRoot();
+    }
+
+    /**
+     * Get the number of children inside this node.
+     *
+     * @return a children count, 0 if this node is not a map or list.
+     */
+    public int size() {
+        return isObject() ? 0 : settings.count(id);
+    }
+
+    /**
+     * Get the child node associated with the given key.
+     *
+     * @param key the node key.
+     * @return    a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull String key) {
+        final int child = isMap() ? settings.child(id, key) : -1;
+        return child < 0 ? NodeValue.empty() : new CompiledNode(settings, child);
+    }
+
+    /**
+     * Get the node associated with the given key path.
+     *
+     * @param path the node path.
+     * @return     a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull String... path) {
+        int current = id;
+        for (String key : path) {
+            if (settings.type(current) != CompiledSettings.MAP || (current = settings.child(current, key)) < 0) {
+                return NodeValue.empty();
+            }
+        }
+        return current == id ? this : new CompiledNode(settings, current);
+    }
+
+    /**
+     * Get the node associated with the given node path.
+     *
+     * @param path the node path.
+     * @return     a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull NodePath path) {
+        int current = id;
+        final int size = path.size();
+        for (int i = 0; i < size; i++) {
+            if (settings.type(current) != CompiledSettings.MAP || (current = settings.child(current, path.getKey(i))) < 0) {
+                return NodeValue.empty();
+            }
+        }
+        return current == id ? this : new CompiledNode(settings, current);
+    }
+
+    /**
+     * Get the list element at the given index.
+     *
+     * @param index the element index.
+     * @return      a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(int index) {
+        if (!isList() || index < 0 || index >= settings.count(id)) {
+            return NodeValue.empty();
+        }
+        return new CompiledNode(settings, settings.first(id) + index);
+    }
+
+    @Override
+    public SettingsNode setParent(@Nullable MapNode parent) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public SettingsNode setKey(@Nullable String key) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public SettingsNode setValue(@NotNull Object value) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public SettingsNode setSourceValue(@Nullable Object value) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public SettingsNode setTopComment(@Nullable List<String> topComment) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public SettingsNode setSideComment(@Nullable List<String> sideComment) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull SettingsNode delete(boolean deep) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull SettingsNode move(@NotNull String... path) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull SettingsNode moveRoot(@NotNull String... path) {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull SettingsNode copy(boolean parent, boolean key) {
+        return settings.toNode(id, null, key ? getKey() : null);
+    }
+
+    @Override
+    public @NotNull ObjectNode asObjectNode() {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull MapNode asMapNode() {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public @NotNull ListNode asListNode() {
+        throw new IllegalStateException("Cannot edit compiled node");
+    }
+
+    @Override
+    public Object asLiteralObject() {
+        return settings.toLiteral(id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompiledNode)) return false;
+
+        final CompiledNode that = (CompiledNode) o;
+        return id == that.id && settings == that.settings;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(settings) + id;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(getValue());
+    }
+
+    private final class MapView extends AbstractMap<String, SettingsNode> {
+
+        @Override
+        public int size() {
+            return settings.count(id);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && settings.child(id, (String) key) >= 0;
+        }
+
+        @Override
+        public SettingsNode get(Object key) {
+            final int child = key instanceof String ? settings.child(id, (String) key) : -1;
+            return child < 0 ? null : new CompiledNode(settings, child);
+        }
+
+        @Override
+        public @NotNull Set<Entry<String, SettingsNode>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, SettingsNode>> iterator() {
+                    final int first = settings.first(id);
+                    final int end = first + settings.count(id);
+                    return new Iterator<>() {
+                        private int child = first;
+
+                        @Override
+                        public boolean hasNext() {
+                            return child < end;
+                        }
+
+                        @Override
+                        public Entry<String, SettingsNode> next() {
+                            if (child >= end) {
+                                throw new NoSuchElementException();
+                            }
+                            final int next = child++;
+                            return new SimpleImmutableEntry<>(settings.key(next), new CompiledNode(settings, next));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return settings.count(id);
+                }
+            };
+        }
+    }
+
+    private final class ListView extends AbstractList<SettingsNode> implements RandomAccess {
+
+        @Override
+        public SettingsNode get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            return new CompiledNode(settings, settings.first(id) + index);
+        }
+
+        @Override
+        public int size() {
+            return settings.count(id);
+        }
+    }
+}
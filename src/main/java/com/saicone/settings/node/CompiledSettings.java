@@ -0,0 +1,469 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only representation of a settings tree saved into flat arrays instead of one object per node.<br>
+ * Nodes are numbered in breadth-first order, so the children of any map or list are saved next to each other,
+ * and every node is described by a few columns: parent id, key id, value type and value bits.
+ * Keys and strings are saved once into pools, and any map child is resolved with a single
+ * (parent, key id) hash lookup.<br>
+ * Nodes are read with {@link CompiledNode} views that are created on demand and only hold the node id,
+ * so they can be discarded after use. Any compiled tree is immutable and safe to read from multiple threads.<br>
+ * Node source values are not compiled, every node keeps its current value.
+ *
+ * @author Rubenicos
+ */
+public final class CompiledSettings {
+
+    static final byte NULL = 0;
+    static final byte MAP = 1;
+    static final byte LIST = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte DOUBLE = 5;
+    static final byte BOOLEAN = 6;
+    static final byte STRING = 7;
+    static final byte OBJECT = 8;
+
+    // Columns, indexed by node id
+    private final int[] parents;
+    private final int[] keyIds;
+    private final byte[] types;
+    // Value bits, or first child id and children count for maps and lists
+    private final long[] values;
+    // Null if no node has comments
+    private final CommentLines[] topComments;
+    private final CommentLines[] sideComments;
+
+    // Pools
+    private final String[] keys;
+    private final int[] keyTable;
+    private final String[] strings;
+    private final Object[] objects;
+
+    // Map children by (parent, key id)
+    private final int[] childTable;
+
+    /**
+     * Compile the provided map node into a flat read-only tree.<br>
+     * The provided node is not modified, and it can be discarded after this operation.
+     *
+     * @param node the map node to compile.
+     * @return     a compiled settings tree.
+     */
+    @NotNull
+    public static CompiledSettings compile(@NotNull MapNode node) {
+        return new Builder().build(node);
+    }
+
+    private CompiledSettings(int[] parents, int[] keyIds, byte[] types, long[] values, CommentLines[] topComments, CommentLines[] sideComments, String[] keys, String[] strings, Object[] objects) {
+        this.parents = parents;
+        this.keyIds = keyIds;
+        this.types = types;
+        this.values = values;
+        this.topComments = topComments;
+        this.sideComments = sideComments;
+        this.keys = keys;
+        this.strings = strings;
+        this.objects = objects;
+
+        this.keyTable = new int[tableSize(keys.length)];
+        final int keyMask = keyTable.length - 1;
+        for (int id = 0; id < keys.length; id++) {
+            int slot = spread(keys[id].hashCode()) & keyMask;
+            while (keyTable[slot] != 0) {
+                slot = (slot + 1) & keyMask;
+            }
+            keyTable[slot] = id + 1;
+        }
+
+        int children = 0;
+        for (int keyId : keyIds) {
+            if (keyId >= 0) {
+                children++;
+            }
+        }
+        this.childTable = new int[tableSize(children)];
+        final int childMask = childTable.length - 1;
+        for (int id = 0; id < keyIds.length; id++) {
+            if (keyIds[id] < 0) {
+                continue;
+            }
+            int slot = hash(parents[id], keyIds[id]) & childMask;
+            while (childTable[slot] != 0) {
+                slot = (slot + 1) & childMask;
+            }
+            childTable[slot] = id + 1;
+        }
+    }
+
+    private static int tableSize(int size) {
+        int n = 2;
+        while (n < size * 2) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(int parent, int keyId) {
+        return spread(parent * 0x9E3779B9 + keyId);
+    }
+
+    /**
+     * Get the root map of this tree.
+     *
+     * @return a compiled node view.
+     */
+    @NotNull
+    public CompiledNode getRoot() {
+        return new CompiledNode(this, 0);
+    }
+
+    /**
+     * Get the node associated with the given key path.
+     *
+     * @param path the node path.
+     * @return     a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull String... path) {
+        return getRoot().get(path);
+    }
+
+    /**
+     * Get the node associated with the given node path.
+     *
+     * @param path the node path.
+     * @return     a compiled node view, or the {@link NodeValue#empty()} node if it doesn't exist.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull NodePath path) {
+        return getRoot().get(path);
+    }
+
+    /**
+     * Get the number of nodes in this tree, including the root map.
+     *
+     * @return a node count.
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Convert this tree into regular settings nodes.
+     *
+     * @return a newly created map node.
+     */
+    @NotNull
+    public MapNode toMapNode() {
+        return (MapNode) toNode(0, null, null);
+    }
+
+    int parent(int id) {
+        return parents[id];
+    }
+
+    @Nullable
+    String key(int id) {
+        final int keyId = keyIds[id];
+        return keyId < 0 ? null : keys[keyId];
+    }
+
+    byte type(int id) {
+        return types[id];
+    }
+
+    int first(int id) {
+        return (int) (values[id] >>> 32);
+    }
+
+    int count(int id) {
+        return (int) values[id];
+    }
+
+    @Nullable
+    Object value(int id) {
+        final long bits = values[id];
+        switch (types[id]) {
+            case INT:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            case BOOLEAN:
+                return bits != 0;
+            case STRING:
+                return strings[(int) bits];
+            case OBJECT:
+                return objects[(int) bits];
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    CommentLines topComment(int id) {
+        return topComments == null ? null : topComments[id];
+    }
+
+    @Nullable
+    CommentLines sideComment(int id) {
+        return sideComments == null ? null : sideComments[id];
+    }
+
+    /**
+     * Get the child id of provided map id associated with the given key.
+     *
+     * @param id  the map id.
+     * @param key the child key.
+     * @return    a child id, -1 if doesn't exist.
+     */
+    int child(int id, @NotNull String key) {
+        final int keyId = keyId(key);
+        if (keyId < 0) {
+            return -1;
+        }
+        final int mask = childTable.length - 1;
+        int slot = hash(id, keyId) & mask;
+        int value;
+        while ((value = childTable[slot]) != 0) {
+            final int child = value - 1;
+            if (parents[child] == id && keyIds[child] == keyId) {
+                return child;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int keyId(@NotNull String key) {
+        final int mask = keyTable.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        int value;
+        while ((value = keyTable[slot]) != 0) {
+            if (keys[value - 1].equals(key)) {
+                return value - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Nullable
+    Object toLiteral(int id) {
+        final byte type = types[id];
+        final int first = first(id);
+        final int count = count(id);
+        if (type == MAP) {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            for (int child = first; child < first + count; child++) {
+                map.put(key(child), toLiteral(child));
+            }
+            return map;
+        } else if (type == LIST) {
+            final List<Object> list = new ArrayList<>(count);
+            for (int child = first; child < first + count; child++) {
+                list.add(toLiteral(child));
+            }
+            return list;
+        }
+        return value(id);
+    }
+
+    @NotNull
+    SettingsNode toNode(int id, @Nullable MapNode parent, @Nullable String key) {
+        final byte type = types[id];
+        final SettingsNode node;
+        if (type == MAP) {
+            final MapNode map = new MapNode(parent, key);
+            final int first = first(id);
+            for (int child = first; child < first + count(id); child++) {
+                final String childKey = key(child);
+                map.put(childKey, toNode(child, map, childKey));
+            }
+            node = map;
+        } else if (type == LIST) {
+            final ListNode list = new ListNode(parent, key);
+            final List<SettingsNode> elements = list.getValue();
+            final int first = first(id);
+            for (int child = first; child < first + count(id); child++) {
+                final Object value;
+                if (elements instanceof NodeList && types[child] != MAP && types[child] != LIST
+                        && topComment(child) == null && sideComment(child) == null && NodeList.isRaw(value = value(child))) {
+                    // Avoid node creation
+                    ((NodeList) elements).addValue(value);
+                } else {
+                    list.add(toNode(child, null, null));
+                }
+            }
+            node = list;
+        } else {
+            node = NodeKey.of(parent, key, value(id));
+        }
+        final CommentLines topComment = topComment(id);
+        if (topComment != null) {
+            node.setTopComment(topComment);
+        }
+        final CommentLines sideComment = sideComment(id);
+        if (sideComment != null) {
+            node.setSideComment(sideComment);
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledSettings{nodes=" + types.length + ", keys=" + keys.length + ", strings=" + strings.length + '}';
+    }
+
+    private static final class Builder {
+
+        private final List<Object> queue = new ArrayList<>();
+        private int[] parents = new int[16];
+        private int[] keyIds = new int[16];
+        private byte[] types = new byte[16];
+        private long[] values = new long[16];
+        private CommentLines[] topComments;
+        private CommentLines[] sideComments;
+
+        private final Map<String, Integer> keyIndex = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final Map<String, Integer> stringIndex = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final List<Object> objects = new ArrayList<>();
+
+        @NotNull
+        CompiledSettings build(@NotNull MapNode root) {
+            enqueue(root, -1, null);
+            for (int id = 0; id < queue.size(); id++) {
+                final Object object = queue.get(id);
+                // Release the source node
+                queue.set(id, null);
+                if (object instanceof SettingsNode) {
+                    final SettingsNode node = (SettingsNode) object;
+                    comments(id, node);
+                    if (node.isMap()) {
+                        final Map<String, SettingsNode> map = node.asMapNode().getValue();
+                        container(id, MAP, map.size());
+                        for (Map.Entry<String, SettingsNode> entry : map.entrySet()) {
+                            enqueue(entry.getValue(), id, entry.getKey());
+                        }
+                        continue;
+                    } else if (node.isList()) {
+                        final List<SettingsNode> list = node.asListNode().getValue();
+                        container(id, LIST, list.size());
+                        // Avoid node creation from compact lists
+                        for (Object element : list instanceof NodeList ? ((NodeList) list).values() : list) {
+                            enqueue(element, id, null);
+                        }
+                        continue;
+                    }
+                    scalar(id, node.getValue());
+                } else {
+                    scalar(id, object);
+                }
+            }
+            final int size = queue.size();
+            return new CompiledSettings(
+                    Arrays.copyOf(parents, size),
+                    Arrays.copyOf(keyIds, size),
+                    Arrays.copyOf(types, size),
+                    Arrays.copyOf(values, size),
+                    topComments == null ? null : Arrays.copyOf(topComments, size),
+                    sideComments == null ? null : Arrays.copyOf(sideComments, size),
+                    keys.toArray(new String[0]),
+                    strings.toArray(new String[0]),
+                    objects.toArray()
+            );
+        }
+
+        private void enqueue(@Nullable Object object, int parent, @Nullable String key) {
+            final int id = queue.size();
+            if (id == parents.length) {
+                final int capacity = id + (id >> 1);
+                parents = Arrays.copyOf(parents, capacity);
+                keyIds = Arrays.copyOf(keyIds, capacity);
+                types = Arrays.copyOf(types, capacity);
+                values = Arrays.copyOf(values, capacity);
+                if (topComments != null) {
+                    topComments = Arrays.copyOf(topComments, capacity);
+                }
+                if (sideComments != null) {
+                    sideComments = Arrays.copyOf(sideComments, capacity);
+                }
+            }
+            queue.add(object);
+            parents[id] = parent;
+            keyIds[id] = key == null ? -1 : keyIndex.computeIfAbsent(key, k -> {
+                keys.add(k);
+                return keys.size() - 1;
+            });
+        }
+
+        private void container(int id, byte type, int count) {
+            types[id] = type;
+            values[id] = ((long) queue.size() << 32) | (count & 0xFFFFFFFFL);
+        }
+
+        private void scalar(int id, @Nullable Object value) {
+            if (value == null) {
+                types[id] = NULL;
+            } else if (value instanceof Integer) {
+                types[id] = INT;
+                values[id] = (Integer) value;
+            } else if (value instanceof Long) {
+                types[id] = LONG;
+                values[id] = (Long) value;
+            } else if (value instanceof Double) {
+                types[id] = DOUBLE;
+                values[id] = Double.doubleToRawLongBits((Double) value);
+            } else if (value instanceof Boolean) {
+                types[id] = BOOLEAN;
+                values[id] = (Boolean) value ? 1 : 0;
+            } else if (value instanceof String) {
+                types[id] = STRING;
+                values[id] = stringIndex.computeIfAbsent((String) value, s -> {
+                    strings.add(s);
+                    return strings.size() - 1;
+                });
+            } else {
+                types[id] = OBJECT;
+                values[id] = objects.size();
+                objects.add(value);
+            }
+        }
+
+        private void comments(int id, @NotNull SettingsNode node) {
+            final List<String> topComment = node.getTopComment();
+            if (topComment != null) {
+                if (topComments == null) {
+                    topComments = new CommentLines[parents.length];
+                }
+                topComments[id] = CommentLines.of(topComment);
+            }
+            final List<String> sideComment = node.getSideComment();
+            if (sideComment != null) {
+                if (sideComments == null) {
+                    sideComments = new CommentLines[parents.length];
+                }
+                sideComments[id] = CommentLines.of(sideComment);
+            }
+        }
+    }
+}
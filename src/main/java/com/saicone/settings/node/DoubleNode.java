@@ -0,0 +1,70 @@
+package com.saicone.settings.node;
+
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class to handle double values as settings node without boxing.
+ *
+ * @author Rubenicos
+ */
+public class DoubleNode extends PrimitiveNode {
+
+    private double value;
+
+    /**
+     * Constructs a double node with the given value.
+     *
+     * @param value the double value.
+     */
+    public DoubleNode(double value) {
+        this(null, null, value);
+    }
+
+    /**
+     * Constructs a double node with the given parameters.
+     *
+     * @param parent the parent node.
+     * @param key    the node key.
+     * @param value  the double value.
+     */
+    public DoubleNode(@Nullable MapNode parent, @Nullable String key, double value) {
+        super(parent, key);
+        this.value = value;
+    }
+
+    /**
+     * Get the node value as double.<br>
+     * If the node value is the primitive one, no conversion is made.
+     *
+     * @return a double value, 0.0 if the value cannot be converted.
+     */
+    public double getDouble() {
+        if (isPrimitive()) {
+            return value;
+        }
+        final Double parsed = asDouble();
+        return parsed == null ? 0.0 : parsed;
+    }
+
+    @Override
+    protected @NotNull TypeParser<?> getParser() {
+        return Types.DOUBLE;
+    }
+
+    @Override
+    protected @NotNull Object box() {
+        return value;
+    }
+
+    @Override
+    protected boolean unbox(@Nullable Object value) {
+        if (value instanceof Double) {
+            this.value = (Double) value;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Immutable node without any key or value, used as result of lookups that
+ * don't create missing nodes.
+ *
+ * @author Rubenicos
+ */
+final class EmptyNode extends ObjectNode {
+
+    static final EmptyNode INSTANCE = new EmptyNode();
+
+    private EmptyNode() {
+        super(null, null, null);
+    }
+
+    @Override
+    public @NotNull SettingsNode setParent(@Nullable MapNode parent) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+
+    @Override
+    public @NotNull SettingsNode setKey(@Nullable String key) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+
+    @Override
+    public @NotNull SettingsNode setValue(@NotNull Object value) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+
+    @Override
+    public @NotNull SettingsNode setSourceValue(@Nullable Object value) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+
+    @Override
+    public @NotNull SettingsNode setTopComment(@Nullable List<String> topComment) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+
+    @Override
+    public @NotNull SettingsNode setSideComment(@Nullable List<String> sideComment) {
+        throw new IllegalStateException("Cannot edit empty node");
+    }
+}
@@ -0,0 +1,70 @@
+package com.saicone.settings.node;
+
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class to handle int values as settings node without boxing.
+ *
+ * @author Rubenicos
+ */
+public class IntNode extends PrimitiveNode {
+
+    private int value;
+
+    /**
+     * Constructs an int node with the given value.
+     *
+     * @param value the int value.
+     */
+    public IntNode(int value) {
+        this(null, null, value);
+    }
+
+    /**
+     * Constructs an int node with the given parameters.
+     *
+     * @param parent the parent node.
+     * @param key    the node key.
+     * @param value  the int value.
+     */
+    public IntNode(@Nullable MapNode parent, @Nullable String key, int value) {
+        super(parent, key);
+        this.value = value;
+    }
+
+    /**
+     * Get the node value as int.<br>
+     * If the node value is the primitive one, no conversion is made.
+     *
+     * @return an int value, 0 if the value cannot be converted.
+     */
+    public int getInt() {
+        if (isPrimitive()) {
+            return value;
+        }
+        final Integer parsed = asInt();
+        return parsed == null ? 0 : parsed;
+    }
+
+    @Override
+    protected @NotNull TypeParser<?> getParser() {
+        return Types.INTEGER;
+    }
+
+    @Override
+    protected @NotNull Object box() {
+        return value;
+    }
+
+    @Override
+    protected boolean unbox(@Nullable Object value) {
+        if (value instanceof Integer) {
+            this.value = (Integer) value;
+            return true;
+        }
+        return false;
+    }
+}
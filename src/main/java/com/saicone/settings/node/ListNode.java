@@ -1,11 +1,17 @@
 package com.saicone.settings.node;
 
 import com.saicone.settings.SettingsNode;
+import com.saicone.settings.type.ListValueType;
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -16,17 +22,104 @@ import java.util.stream.Collectors;
 
 /**
  * Class to handle a list of settings nodes.<br>
- * This object can also be handled as regular Java list.
+ * This object can also be handled as regular Java list.<br>
+ * Any conversion into array is cached until the list or any element is modified,
+ * and the cached array itself is returned every time, so it must not be modified.
  *
  * @author Rubenicos
  */
-public class ListNode extends NodeKey<List<SettingsNode>> implements List<SettingsNode> {
+public class ListNode extends NodeKey<List<SettingsNode>> implements List<SettingsNode>, ListValueType<Object> {
+
+    private static final int[] EMPTY_INT = new int[0];
+    private static final long[] EMPTY_LONG = new long[0];
+    private static final double[] EMPTY_DOUBLE = new double[0];
+    private static final boolean[] EMPTY_BOOLEAN = new boolean[0];
+    private static final String[] EMPTY_STRING = new String[0];
+
+    private static final TypeParser<int[]> INT_ARRAY = object -> {
+        if (object instanceof NodeList.Values) {
+            final int[] array = ((NodeList.Values) object).getList().copyInts();
+            if (array != null) {
+                return array;
+            }
+        }
+        final Collection<?> values = (Collection<?>) object;
+        final int[] array = new int[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            final Integer parsed = Types.INTEGER.parse(value, null);
+            if (parsed != null) {
+                array[size++] = parsed;
+            }
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    };
+    private static final TypeParser<long[]> LONG_ARRAY = object -> {
+        if (object instanceof NodeList.Values) {
+            final long[] array = ((NodeList.Values) object).getList().copyLongs();
+            if (array != null) {
+                return array;
+            }
+        }
+        final Collection<?> values = (Collection<?>) object;
+        final long[] array = new long[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            final Long parsed = Types.LONG.parse(value, null);
+            if (parsed != null) {
+                array[size++] = parsed;
+            }
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    };
+    private static final TypeParser<double[]> DOUBLE_ARRAY = object -> {
+        if (object instanceof NodeList.Values) {
+            final double[] array = ((NodeList.Values) object).getList().copyDoubles();
+            if (array != null) {
+                return array;
+            }
+        }
+        final Collection<?> values = (Collection<?>) object;
+        final double[] array = new double[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            final Double parsed = Types.DOUBLE.parse(value, null);
+            if (parsed != null) {
+                array[size++] = parsed;
+            }
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    };
+    private static final TypeParser<boolean[]> BOOLEAN_ARRAY = object -> {
+        final Collection<?> values = (Collection<?>) object;
+        final boolean[] array = new boolean[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            final Boolean parsed = Types.BOOLEAN.parse(value, null);
+            if (parsed != null) {
+                array[size++] = parsed;
+            }
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    };
+    private static final TypeParser<String[]> STRING_ARRAY = object -> {
+        final Collection<?> values = (Collection<?>) object;
+        final String[] array = new String[values.size()];
+        int size = 0;
+        for (Object value : values) {
+            final String parsed = Types.STRING.parse(value, null);
+            if (parsed != null) {
+                array[size++] = parsed;
+            }
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    };
 
     /**
      * Constructs an empty list of nodes.
      */
     public ListNode() {
-        this(new ArrayList<>());
+        this(new NodeList());
     }
 
     /**
@@ -45,7 +138,7 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
      * @param key    the node key.
      */
     public ListNode(@Nullable MapNode parent, @Nullable String key) {
-        this(parent, key, new ArrayList<>());
+        this(parent, key, new NodeList());
     }
 
     /**
@@ -57,6 +150,9 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
      */
     public ListNode(@Nullable MapNode parent, @Nullable String key, @Nullable List<SettingsNode> value) {
         super(parent, key, value);
+        if (value instanceof NodeList) {
+            ((NodeList) value).setOwner(this);
+        }
     }
 
     @Override
@@ -66,9 +162,12 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     @Override
     public @NotNull SettingsNode setValue(@NotNull Object value) {
+        checkMutable();
         if (value instanceof Iterable) {
             if (getFaceValue() == null) {
-                super.setValue(new ArrayList<>());
+                final NodeList list = new NodeList();
+                list.setOwner(this);
+                super.setValue(list);
             } else {
                 clear();
             }
@@ -88,42 +187,104 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     /**
      * Merge provided iterable object into the current list of nodes.<br>
-     * This method also creates a node value for each inherited value.
+     * This method also creates a node value for each inherited value, except for scalar
+     * values that are saved as raw values until they are accessed as node.<br>
+     * The list node is marked as modified only once, after every value is added.
      *
      * @param iterable the object to inherit.
      * @return         a list node with the merged values, normally the original list itself.
      */
     @NotNull
     public ListNode merge(@NotNull Iterable<?> iterable) {
+        checkMutable();
+        final List<SettingsNode> list = getValue();
+        if (iterable instanceof NodeList) {
+            // Avoid node creation from compact lists
+            iterable = ((NodeList) iterable).values();
+        }
+        boolean merged = false;
         for (Object o : iterable) {
-            add(NodeValue.of(o));
+            if (list instanceof NodeList && NodeList.isRaw(o)) {
+                ((NodeList) list).addValue(o);
+            } else {
+                list.add(NodeValue.of(o));
+            }
+            merged = true;
+        }
+        if (merged) {
+            modified();
+        }
+        return this;
+    }
+
+    /**
+     * Replace every element of this list with the elements of provided list node in a single step.<br>
+     * Any thread reading this node will see the previous elements or the new ones,
+     * but never an empty or partially filled list.<br>
+     * Every previous element is detached, and the provided node must not be used after this operation.
+     *
+     * @param node the list node to take elements from.
+     * @return     this object itself.
+     */
+    @NotNull
+    public ListNode swap(@NotNull ListNode node) {
+        final List<SettingsNode> previous = getValue();
+        final List<SettingsNode> list = node.getValue();
+        if (list instanceof NodeList) {
+            ((NodeList) list).setOwner(this);
+        }
+        publish(list);
+        // Previous elements are detached
+        if (previous instanceof NodeList && previous != list) {
+            ((NodeList) previous).setOwner(null);
         }
         return this;
     }
 
     @Override
-    public @NotNull SettingsNode edit(@NotNull Function<SettingsNode, SettingsNode> function) {
+    public @NotNull ListNode freeze() {
+        if (isFrozen()) {
+            return this;
+        }
         final List<SettingsNode> list = getValue();
-        final Iterator<SettingsNode> iterator = list.iterator();
-        int i = 0;
+        // Raw elements are not converted into nodes
+        for (Object element : list instanceof NodeList ? ((NodeList) list).values() : list) {
+            if (element instanceof NodeValue) {
+                ((NodeValue<?>) element).freeze();
+            }
+        }
+        if (list instanceof NodeList) {
+            ((NodeList) list).freeze();
+        } else {
+            replaceValue(Collections.unmodifiableList(list));
+        }
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    public @NotNull SettingsNode edit(@NotNull Function<SettingsNode, SettingsNode> function) {
+        checkMutable();
+        final ListIterator<SettingsNode> iterator = listIterator();
         while (iterator.hasNext()) {
-            SettingsNode node = iterator.next();
+            final SettingsNode node = iterator.next();
             if (node != null) {
-                node = node.edit(function);
-                if (node != null) {
-                    list.set(i, node);
-                } else {
-                    i--;
+                final SettingsNode edited = node.edit(function);
+                if (edited == null) {
                     iterator.remove();
+                } else if (edited != node) {
+                    iterator.set(edited);
                 }
             }
-            i++;
         }
         return this;
     }
 
     @Override
     public @NotNull List<Object> asLiteralObject() {
+        if (getValue() instanceof NodeList) {
+            return ((NodeList) getValue()).toLiteralList();
+        }
         final List<Object> list = new ArrayList<>();
         for (SettingsNode node : getValue()) {
             list.add(node.asLiteralObject());
@@ -131,6 +292,36 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
         return list;
     }
 
+    @Override
+    public int @NotNull [] asIntArray() {
+        return as(INT_ARRAY, EMPTY_INT);
+    }
+
+    @Override
+    public long @NotNull [] asLongArray() {
+        return as(LONG_ARRAY, EMPTY_LONG);
+    }
+
+    @Override
+    public double @NotNull [] asDoubleArray() {
+        return as(DOUBLE_ARRAY, EMPTY_DOUBLE);
+    }
+
+    @Override
+    public boolean @NotNull [] asBooleanArray() {
+        return as(BOOLEAN_ARRAY, EMPTY_BOOLEAN);
+    }
+
+    @Override
+    public String @NotNull [] asStringArray() {
+        return as(STRING_ARRAY, EMPTY_STRING);
+    }
+
+    @Override
+    protected @Nullable Object parsable(@Nullable Object value) {
+        return value instanceof NodeList ? ((NodeList) value).values() : value;
+    }
+
     @Override
     public String toString() {
         return getValue().stream().map(Object::toString).collect(Collectors.joining("\n"));
@@ -155,7 +346,7 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     @Override
     public @NotNull Iterator<SettingsNode> iterator() {
-        return getValue().iterator();
+        return new NodeIterator(getValue().listIterator());
     }
 
     @NotNull
@@ -172,11 +363,13 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     @Override
     public boolean add(SettingsNode e) {
+        modified();
         return getValue().add(e);
     }
 
     @Override
     public boolean remove(Object o) {
+        modified();
         return getValue().remove(o);
     }
 
@@ -187,26 +380,31 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     @Override
     public boolean addAll(@NotNull Collection<? extends SettingsNode> c) {
+        modified();
         return getValue().addAll(c);
     }
 
     @Override
     public boolean addAll(int index, @NotNull Collection<? extends SettingsNode> c) {
+        modified();
         return getValue().addAll(c);
     }
 
     @Override
     public boolean removeAll(@NotNull Collection<?> c) {
+        modified();
         return getValue().removeAll(c);
     }
 
     @Override
     public boolean retainAll(@NotNull Collection<?> c) {
+        modified();
         return getValue().retainAll(c);
     }
 
     @Override
     public void clear() {
+        modified();
         getValue().clear();
     }
 
@@ -217,16 +415,19 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
 
     @Override
     public SettingsNode set(int index, SettingsNode element) {
+        modified();
         return getValue().set(index, element);
     }
 
     @Override
     public void add(int index, SettingsNode element) {
+        modified();
         getValue().add(index, element);
     }
 
     @Override
     public SettingsNode remove(int index) {
+        modified();
         return getValue().remove(index);
     }
 
@@ -243,18 +444,117 @@ public class ListNode extends NodeKey<List<SettingsNode>> implements List<Settin
     @NotNull
     @Override
     public ListIterator<SettingsNode> listIterator() {
-        return getValue().listIterator();
+        return new NodeIterator(getValue().listIterator());
     }
 
     @NotNull
     @Override
     public ListIterator<SettingsNode> listIterator(int index) {
-        return getValue().listIterator(index);
+        return new NodeIterator(getValue().listIterator(index));
     }
 
+    /**
+     * Get a view of the portion of this list between the specified indexes.<br>
+     * Any modification made on the view is applied with list node methods, so this node is marked as modified.
+     *
+     * @param fromIndex low endpoint (inclusive) of the sub list.
+     * @param toIndex   high endpoint (exclusive) of the sub list.
+     * @return          a view of the specified range within this list.
+     */
     @NotNull
     @Override
     public List<SettingsNode> subList(int fromIndex, int toIndex) {
-        return getValue().subList(fromIndex, toIndex);
+        return new NodeView().subList(fromIndex, toIndex);
+    }
+
+    /**
+     * List iterator that marks this node as modified on every modification.
+     */
+    private final class NodeIterator implements ListIterator<SettingsNode> {
+
+        private final ListIterator<SettingsNode> iterator;
+
+        NodeIterator(@NotNull ListIterator<SettingsNode> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public SettingsNode next() {
+            return iterator.next();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return iterator.hasPrevious();
+        }
+
+        @Override
+        public SettingsNode previous() {
+            return iterator.previous();
+        }
+
+        @Override
+        public int nextIndex() {
+            return iterator.nextIndex();
+        }
+
+        @Override
+        public int previousIndex() {
+            return iterator.previousIndex();
+        }
+
+        @Override
+        public void remove() {
+            modified();
+            iterator.remove();
+        }
+
+        @Override
+        public void set(SettingsNode node) {
+            modified();
+            iterator.set(node);
+        }
+
+        @Override
+        public void add(SettingsNode node) {
+            modified();
+            iterator.add(node);
+        }
+    }
+
+    /**
+     * List view of this node, used to create sub lists that are modified with list node methods.
+     */
+    private final class NodeView extends AbstractList<SettingsNode> {
+
+        @Override
+        public SettingsNode get(int index) {
+            return ListNode.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ListNode.this.size();
+        }
+
+        @Override
+        public SettingsNode set(int index, SettingsNode element) {
+            return ListNode.this.set(index, element);
+        }
+
+        @Override
+        public void add(int index, SettingsNode element) {
+            ListNode.this.add(index, element);
+        }
+
+        @Override
+        public SettingsNode remove(int index) {
+            return ListNode.this.remove(index);
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.saicone.settings.node;
+
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Class to handle long values as settings node without boxing.
+ *
+ * @author Rubenicos
+ */
+public class LongNode extends PrimitiveNode {
+
+    private long value;
+
+    /**
+     * Constructs a long node with the given value.
+     *
+     * @param value the long value.
+     */
+    public LongNode(long value) {
+        this(null, null, value);
+    }
+
+    /**
+     * Constructs a long node with the given parameters.
+     *
+     * @param parent the parent node.
+     * @param key    the node key.
+     * @param value  the long value.
+     */
+    public LongNode(@Nullable MapNode parent, @Nullable String key, long value) {
+        super(parent, key);
+        this.value = value;
+    }
+
+    /**
+     * Get the node value as long.<br>
+     * If the node value is the primitive one, no conversion is made.
+     *
+     * @return a long value, 0L if the value cannot be converted.
+     */
+    public long getLong() {
+        if (isPrimitive()) {
+            return value;
+        }
+        final Long parsed = asLong();
+        return parsed == null ? 0L : parsed;
+    }
+
+    @Override
+    protected @NotNull TypeParser<?> getParser() {
+        return Types.LONG;
+    }
+
+    @Override
+    protected @NotNull Object box() {
+        return value;
+    }
+
+    @Override
+    protected boolean unbox(@Nullable Object value) {
+        if (value instanceof Long) {
+            this.value = (Long) value;
+            return true;
+        }
+        return false;
+    }
+}
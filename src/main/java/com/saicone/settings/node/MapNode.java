@@ -8,19 +8,24 @@ import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 
 /**
  * Class to handle a map of settings nodes.<br>
@@ -30,11 +35,29 @@ import java.util.regex.Pattern;
  */
 public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<String, SettingsNode>, Iterable<Map.Entry<String, SettingsNode>> {
 
+    // Lower-case key index, lazily built for case-insensitive lookups
+    private transient Map<String, String> ignoreCaseIndex;
+    private transient Map<String, SettingsNode> ignoreCaseSource;
+    private transient int ignoreCaseCount;
+
+    // Last created snapshot and node stamp at that moment
+    private transient MapSnapshot snapshot;
+    private transient int snapshotStamp;
+    // Keys edited since the last created snapshot, true if the key was removed or inserted
+    private transient Map<String, Boolean> snapshotChanges;
+    // Number of keyed modifications since the last created snapshot
+    private transient int snapshotPending;
+
+    // Map views that remove nodes with the same hooks as node methods
+    private transient Set<String> keySet;
+    private transient Collection<SettingsNode> values;
+    private transient Set<Entry<String, SettingsNode>> entrySet;
+
     /**
      * Constructs an empty map of nodes.
      */
     public MapNode() {
-        this(new LinkedHashMap<>());
+        this(new NodeMap<>());
     }
 
     /**
@@ -53,7 +76,7 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      * @param key    the node key.
      */
     public MapNode(@Nullable MapNode parent, @Nullable String key) {
-        this(parent, key, new LinkedHashMap<>());
+        this(parent, key, parent == null ? new NodeMap<>() : parent.newMap());
     }
 
     /**
@@ -72,6 +95,31 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         return true;
     }
 
+    /**
+     * Check if this node is sharing its map storage with other nodes, in that case every
+     * child node is a frozen view that is created on each access.
+     *
+     * @return true if the child nodes are not saved into this map.
+     * @see NodeInterner
+     */
+    public boolean isShared() {
+        final Map<String, SettingsNode> map = getValue();
+        return map instanceof NodeMap && ((NodeMap<?>) map).isShared();
+    }
+
+    /**
+     * Create a new map to save nodes into.<br>
+     * By default, the map type is provided by the parent node, or an insertion-ordered
+     * compact map if the current node doesn't have any parent.
+     *
+     * @return a newly generated map.
+     */
+    @NotNull
+    protected Map<String, SettingsNode> newMap() {
+        final MapNode parent = getParent();
+        return parent == null ? new NodeMap<>() : parent.newMap();
+    }
+
     /**
      * Get the node associated with the given key.
      *
@@ -80,7 +128,11 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      */
     @NotNull
     public SettingsNode get(@NotNull String key) {
-        return getIf(s -> s.equals(key), key);
+        final SettingsNode node = getValue().get(key);
+        if (node != null) {
+            return node;
+        }
+        return child(key);
     }
 
     /**
@@ -94,7 +146,20 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         if (path.length == 1) {
             return get(path[0]);
         }
-        return getIf(String::equals, path);
+        return getPath(false, path);
+    }
+
+    /**
+     * Get the node associated with the given node path.<br>
+     * Unlike {@link #get(String...)} this method doesn't need to split or
+     * join any key, so the path can be reused on every lookup.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    public SettingsNode get(@NotNull NodePath path) {
+        return getPath(false, path);
     }
 
     /**
@@ -105,7 +170,11 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      */
     @NotNull
     public SettingsNode getIgnoreCase(@NotNull String key) {
-        return getIf(s -> s.equalsIgnoreCase(key), key);
+        final SettingsNode node = getChildIgnoreCase(key);
+        if (node != null) {
+            return node;
+        }
+        return child(key);
     }
 
     /**
@@ -119,7 +188,157 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         if (path.length == 1) {
             return getIgnoreCase(path[0]);
         }
-        return getIf(String::equalsIgnoreCase, path);
+        return getPath(true, path);
+    }
+
+    /**
+     * Get the node associated with the given node path ignoring case considerations.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    public SettingsNode getIgnoreCase(@NotNull NodePath path) {
+        return getPath(true, path);
+    }
+
+    /**
+     * Get the node associated with the given key without creating it.
+     *
+     * @param key the node key.
+     * @return    a node from the map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode find(@NotNull String key) {
+        final SettingsNode node = getValue().get(key);
+        return node != null ? node : NodeValue.empty();
+    }
+
+    /**
+     * Get the node associated with the given key path without creating it.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode find(@NotNull String... path) {
+        if (path.length == 1) {
+            return find(path[0]);
+        }
+        return findPath(false, path);
+    }
+
+    /**
+     * Get the node associated with the given node path without creating it.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode find(@NotNull NodePath path) {
+        return findPath(false, path);
+    }
+
+    /**
+     * Get the node associated with the given key ignoring case considerations without creating it.
+     *
+     * @param key the node key.
+     * @return    a node from the map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode findIgnoreCase(@NotNull String key) {
+        final SettingsNode node = getChildIgnoreCase(key);
+        return node != null ? node : NodeValue.empty();
+    }
+
+    /**
+     * Get the node associated with the given key path ignoring case considerations without creating it.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode findIgnoreCase(@NotNull String... path) {
+        if (path.length == 1) {
+            return findIgnoreCase(path[0]);
+        }
+        return findPath(true, path);
+    }
+
+    /**
+     * Get the node associated with the given node path ignoring case considerations without creating it.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    public SettingsNode findIgnoreCase(@NotNull NodePath path) {
+        return findPath(true, path);
+    }
+
+    /**
+     * Get the node associated with the given key path if exists.<br>
+     * This method doesn't create any node.
+     *
+     * @param path the node path.
+     * @return     an optional containing the node, empty optional otherwise.
+     */
+    @NotNull
+    public Optional<SettingsNode> getIfPresent(@NotNull String... path) {
+        final SettingsNode node = find(path);
+        return node == NodeValue.empty() ? Optional.empty() : Optional.of(node);
+    }
+
+    /**
+     * Get the node associated with the given node path if exists.<br>
+     * This method doesn't create any node.
+     *
+     * @param path the node path.
+     * @return     an optional containing the node, empty optional otherwise.
+     */
+    @NotNull
+    public Optional<SettingsNode> getIfPresent(@NotNull NodePath path) {
+        final SettingsNode node = find(path);
+        return node == NodeValue.empty() ? Optional.empty() : Optional.of(node);
+    }
+
+    /**
+     * Get the node associated with the given key path, or create it if doesn't exist.<br>
+     * Unlike {@link #get(String...)} this method always creates the missing node,
+     * even if any subclass change the lookup behavior.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    public SettingsNode getOrCreate(@NotNull String... path) {
+        return createPath(false, path);
+    }
+
+    /**
+     * Get the node associated with the given node path, or create it if doesn't exist.<br>
+     * Unlike {@link #get(NodePath)} this method always creates the missing node,
+     * even if any subclass change the lookup behavior.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    public SettingsNode getOrCreate(@NotNull NodePath path) {
+        return createPath(false, path.getKeys());
+    }
+
+    /**
+     * Get the node associated with the given key path ignoring case considerations, or create it if doesn't exist.<br>
+     * Unlike {@link #getIgnoreCase(String...)} this method always creates the missing node,
+     * even if any subclass change the lookup behavior.
+     *
+     * @param path the node path.
+     * @return     a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    public SettingsNode getOrCreateIgnoreCase(@NotNull String... path) {
+        return createPath(true, path);
     }
 
     /**
@@ -132,8 +351,7 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      */
     @NotNull
     public SettingsNode getRegex(@NotNull @Language("RegExp") String regex) {
-        final Pattern pattern = Pattern.compile(regex);
-        return getIf(s -> pattern.matcher(s).matches(), null);
+        return matchPath(RegexPath.of(regex));
     }
 
     /**
@@ -149,7 +367,20 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         if (regexPath.length == 1) {
             return getRegex(regexPath[0]);
         }
-        return getIf(Pattern::compile, (s, pattern) -> pattern.matcher(s).matches(), regexPath);
+        return matchPath(RegexPath.of(regexPath));
+    }
+
+    /**
+     * Get the node whose key path matches with given compiled regex path.<br>
+     * Instead of {@link #get(NodePath)} or {@link #getIgnoreCase(NodePath)} this method
+     * may create a new node without any defined key.
+     *
+     * @param path the regex path.
+     * @return     a node from any sub map or a newly created without any defined key.
+     */
+    @NotNull
+    public SettingsNode getRegex(@NotNull RegexPath path) {
+        return matchPath(path);
     }
 
     /**
@@ -162,7 +393,279 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      */
     @NotNull
     public SettingsNode getSplit(@NotNull Object path) {
-        return get(Strings.split(String.valueOf(path), '.'));
+        if (path instanceof NodePath) {
+            return get((NodePath) path);
+        }
+        return get(NodePath.parse(String.valueOf(path)));
+    }
+
+    /**
+     * Get a node by walking the given key path with direct key lookups.<br>
+     * Same as {@link #getIf(BiPredicate, String...)} with equals or equalsIgnoreCase
+     * comparison, but every path segment is resolved with a hash lookup instead of a key scan.
+     *
+     * @param ignoreCase true to ignore key case considerations.
+     * @param path       the node path.
+     * @return           a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    protected SettingsNode getPath(boolean ignoreCase, @NotNull String... path) {
+        SettingsNode node = this;
+        for (int i = 0; i < path.length; i++) {
+            if (!node.isMap()) {
+                return child();
+            }
+            final MapNode map = node.asMapNode();
+            final SettingsNode child = ignoreCase ? map.getChildIgnoreCase(path[i]) : map.getValue().get(path[i]);
+            if (child == null) {
+                if (map.isFrozen()) {
+                    return NodeValue.empty();
+                }
+                MapNode parent = map;
+                for (int j = i; j + 1 < path.length; j++) {
+                    parent = new MapNode(parent, path[j]);
+                }
+                return parent.child(path[path.length - 1]);
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Get a node by walking the given node path with direct key lookups.
+     *
+     * @param ignoreCase true to ignore key case considerations.
+     * @param path       the node path.
+     * @return           a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    protected SettingsNode getPath(boolean ignoreCase, @NotNull NodePath path) {
+        SettingsNode node = this;
+        final int size = path.size();
+        for (int i = 0; i < size; i++) {
+            if (!node.isMap()) {
+                return child();
+            }
+            final MapNode map = node.asMapNode();
+            final SettingsNode child = ignoreCase ? map.getLowerChild(path.getLowerKey(i)) : map.getValue().get(path.getKey(i));
+            if (child == null) {
+                if (map.isFrozen()) {
+                    return NodeValue.empty();
+                }
+                MapNode parent = map;
+                for (int j = i; j + 1 < size; j++) {
+                    parent = new MapNode(parent, path.getKey(j));
+                }
+                return parent.child(path.getLast());
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Get a node by walking the given key path, creating and adding any missing node into its parent map.<br>
+     * If any path segment is an existing node that is not a map, a detached node is returned instead.
+     *
+     * @param ignoreCase true to ignore key case considerations.
+     * @param path       the node path.
+     * @return           a node from any sub map or a newly created instead.
+     */
+    @NotNull
+    protected SettingsNode createPath(boolean ignoreCase, @NotNull String... path) {
+        MapNode map = this;
+        final int last = path.length - 1;
+        for (int i = 0; i < last; i++) {
+            final SettingsNode child = ignoreCase ? map.getChildIgnoreCase(path[i]) : map.getValue().get(path[i]);
+            if (child == null) {
+                final MapNode created = new MapNode(map, path[i]);
+                map.put(path[i], created);
+                map = created;
+            } else if (child.isMap()) {
+                map = child.asMapNode();
+            } else {
+                return child();
+            }
+        }
+        final SettingsNode node = ignoreCase ? map.getChildIgnoreCase(path[last]) : map.getValue().get(path[last]);
+        return node != null ? node : map.child(path[last]);
+    }
+
+    /**
+     * Get a node by walking the given regex path, any literal expression is resolved with a direct key lookup.
+     *
+     * @param path the regex path.
+     * @return     a node from any sub map or a newly created without any defined key.
+     */
+    @NotNull
+    protected SettingsNode matchPath(@NotNull RegexPath path) {
+        SettingsNode node = this;
+        final int size = path.size();
+        for (int i = 0; i < size; i++) {
+            if (!node.isMap()) {
+                return child();
+            }
+            final MapNode map = node.asMapNode();
+            final String literal = path.getLiteral(i);
+            SettingsNode child = null;
+            if (literal != null) {
+                child = map.getValue().get(literal);
+            } else {
+                for (Entry<String, SettingsNode> entry : map.getValue().entrySet()) {
+                    if (path.matches(i, entry.getKey())) {
+                        child = entry.getValue();
+                        break;
+                    }
+                }
+            }
+            if (child == null) {
+                return child();
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    /**
+     * Get a node by walking the given key path without creating any missing node.
+     *
+     * @param ignoreCase true to ignore key case considerations.
+     * @param path       the node path.
+     * @return           a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    protected SettingsNode findPath(boolean ignoreCase, @NotNull String... path) {
+        SettingsNode node = this;
+        for (String key : path) {
+            if (!node.isMap()) {
+                return NodeValue.empty();
+            }
+            final MapNode map = node.asMapNode();
+            node = ignoreCase ? map.getChildIgnoreCase(key) : map.getValue().get(key);
+            if (node == null) {
+                return NodeValue.empty();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Get a node by walking the given node path without creating any missing node.
+     *
+     * @param ignoreCase true to ignore key case considerations.
+     * @param path       the node path.
+     * @return           a node from any sub map or the {@link NodeValue#empty()} node instead.
+     */
+    @NotNull
+    protected SettingsNode findPath(boolean ignoreCase, @NotNull NodePath path) {
+        SettingsNode node = this;
+        final int size = path.size();
+        for (int i = 0; i < size; i++) {
+            if (!node.isMap()) {
+                return NodeValue.empty();
+            }
+            final MapNode map = node.asMapNode();
+            node = ignoreCase ? map.getLowerChild(path.getLowerKey(i)) : map.getValue().get(path.getKey(i));
+            if (node == null) {
+                return NodeValue.empty();
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Get the child node whose key is equal to the given key ignoring case considerations.<br>
+     * If more than one key matches, the first inserted key is used.
+     *
+     * @param key the node key.
+     * @return    a child node if exists, null otherwise.
+     */
+    @Nullable
+    protected SettingsNode getChildIgnoreCase(@NotNull String key) {
+        return getLowerChild(Strings.lowerCase(key));
+    }
+
+    @Nullable
+    private SettingsNode getLowerChild(@NotNull String lowerKey) {
+        final Map<String, SettingsNode> map = getValue();
+        if (isFrozen()) {
+            // The index is built on freeze, so reading a frozen map never writes into it
+            final Map<String, String> index = ignoreCaseIndex;
+            if (index == null) {
+                return map.get(lowerKey);
+            }
+            final String realKey = index.get(lowerKey);
+            return realKey == null ? null : map.get(realKey);
+        }
+        if (ignoreCaseSource == map) {
+            final String realKey = ignoreCaseIndex.get(lowerKey);
+            if (realKey != null) {
+                final SettingsNode node = map.get(realKey);
+                if (node != null) {
+                    return node;
+                }
+            } else if (ignoreCaseCount == map.size()) {
+                return null;
+            }
+        }
+        // The map was replaced or edited without any index update
+        buildIgnoreCaseIndex(map);
+        final String realKey = ignoreCaseIndex.get(lowerKey);
+        return realKey == null ? null : map.get(realKey);
+    }
+
+    private void buildIgnoreCaseIndex(@NotNull Map<String, SettingsNode> map) {
+        final Map<String, String> index = new HashMap<>();
+        for (String key : map.keySet()) {
+            index.putIfAbsent(Strings.lowerCase(key), key);
+        }
+        this.ignoreCaseIndex = index;
+        this.ignoreCaseSource = map;
+        this.ignoreCaseCount = map.size();
+    }
+
+    @Nullable
+    private static Map<String, String> buildFrozenIndex(@NotNull Map<String, SettingsNode> map) {
+        // The index is only needed if any key is not lower-case
+        Map<String, String> index = null;
+        for (String key : map.keySet()) {
+            final String lowerKey = Strings.lowerCase(key);
+            if (index == null) {
+                if (lowerKey.equals(key)) {
+                    continue;
+                }
+                index = new HashMap<>();
+                for (String previous : map.keySet()) {
+                    if (previous.equals(key)) {
+                        break;
+                    }
+                    index.put(previous, previous);
+                }
+            }
+            index.putIfAbsent(lowerKey, key);
+        }
+        return index;
+    }
+
+    private void indexKey(@NotNull String key, @Nullable SettingsNode previous) {
+        if (previous == null && ignoreCaseSource == getValue()) {
+            ignoreCaseIndex.putIfAbsent(Strings.lowerCase(key), key);
+            ignoreCaseCount++;
+        }
+    }
+
+    private void unindexKey(@NotNull Object key, @Nullable SettingsNode previous) {
+        if (previous != null && ignoreCaseSource != null) {
+            final String lowerKey = Strings.lowerCase(String.valueOf(key));
+            if (key.equals(ignoreCaseIndex.get(lowerKey))) {
+                // Any other key with the same lower-case form must be found again
+                ignoreCaseSource = null;
+                ignoreCaseIndex = null;
+            } else {
+                ignoreCaseCount--;
+            }
+        }
     }
 
     /**
@@ -293,12 +796,12 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
             SettingsNode child = mapNode.getValue().get(key);
             if (child == null) {
                 child = new MapNode(mapNode, key);
-                mapNode.getValue().put(key, child);
+                mapNode.put(key, child);
             } else if (!child.isMap()) {
                 final SettingsNode temp = new MapNode(mapNode, key);
                 temp.mergeComment(child);
                 child = temp;
-                mapNode.getValue().put(key, child);
+                mapNode.put(key, child);
             }
             mapNode = child.asMapNode();
         }
@@ -309,9 +812,17 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
 
     @Override
     public @NotNull SettingsNode setValue(@NotNull Object value) {
+        checkMutable();
         if (value instanceof Map) {
             if (getFaceValue() == null) {
-                super.setValue(new LinkedHashMap<>());
+                // Source map is kept, so current nodes are only detached
+                if (getSourceValue() instanceof Map) {
+                    for (SettingsNode node : getValue().values()) {
+                        invalidate(node);
+                        remove(node);
+                    }
+                }
+                super.setValue(newMap());
             } else {
                 clear();
             }
@@ -427,8 +938,146 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         return merge(map, replace, true);
     }
 
+    @Override
+    public @NotNull MapNode freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        final Map<String, SettingsNode> map = getValue();
+        for (SettingsNode node : map.values()) {
+            if (node instanceof NodeValue) {
+                ((NodeValue<?>) node).freeze();
+            }
+        }
+        if (map instanceof NodeMap) {
+            ((NodeMap<?>) map).freeze();
+        } else {
+            replaceValue(Collections.unmodifiableMap(map));
+        }
+        ignoreCaseSource = null;
+        ignoreCaseIndex = buildFrozenIndex(map);
+        super.freeze();
+        return this;
+    }
+
+    /**
+     * Get an immutable snapshot of the current map node values.<br>
+     * The snapshot is cached until this node or any sub node is modified, so getting a snapshot of
+     * an unchanged map doesn't copy anything, and any unchanged sub map reuses its previous snapshot.<br>
+     * After a modification, only the edited keys are updated into the previous snapshot.<br>
+     * This method must be called from the same thread that edits this node,
+     * but the returned snapshot can be read from any thread.
+     *
+     * @return an immutable snapshot of this map.
+     */
+    @NotNull
+    public MapSnapshot snapshot() {
+        final int stamp = getStamp();
+        MapSnapshot snapshot = this.snapshot;
+        if (snapshot != null && snapshotStamp == stamp) {
+            return snapshot;
+        }
+        final Map<String, SettingsNode> map = getValue();
+        final Map<String, Boolean> changes = snapshotChanges;
+        // Any modification without a known key requires a full copy
+        if (snapshot == null || ((stamp - snapshotStamp) & Integer.MAX_VALUE) != snapshotPending
+                || changes != null && changes.size() > map.size() / 2) {
+            snapshot = MapSnapshot.of(map);
+        } else if (changes != null) {
+            for (Entry<String, Boolean> entry : changes.entrySet()) {
+                final String key = entry.getKey();
+                if (entry.getValue()) {
+                    // Removed or inserted keys are appended again to keep map order
+                    snapshot = snapshot.without(key);
+                }
+                final SettingsNode node = map.get(key);
+                if (node != null) {
+                    snapshot = snapshot.with(key, node);
+                }
+            }
+        }
+        this.snapshot = snapshot;
+        this.snapshotStamp = stamp;
+        this.snapshotChanges = null;
+        this.snapshotPending = 0;
+        return snapshot;
+    }
+
+    /**
+     * Mark the current node as modified by the edition of the provided key.
+     *
+     * @param key   the edited key.
+     * @param moved true if the key was removed or inserted into map.
+     */
+    void modified(@NotNull String key, boolean moved) {
+        changed(key, moved);
+        snapshotPending++;
+        modified();
+    }
+
+    private void changed(@NotNull String key, boolean moved) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshotChanges == null) {
+            snapshotChanges = new LinkedHashMap<>();
+        }
+        if (moved) {
+            // The last inserted key is applied at last
+            snapshotChanges.remove(key);
+            snapshotChanges.put(key, true);
+        } else {
+            snapshotChanges.putIfAbsent(key, false);
+        }
+    }
+
+    /**
+     * Compile the current map node into a flat read-only tree.<br>
+     * This is useful for very large settings that are only read after loading,
+     * since the compiled tree takes much less memory than regular nodes.
+     *
+     * @return a compiled settings tree.
+     * @see CompiledSettings
+     */
+    @NotNull
+    public CompiledSettings compile() {
+        return CompiledSettings.compile(this);
+    }
+
+    /**
+     * Replace every child of this map with the children of provided map node in a single step.<br>
+     * The new map is completely built before it's published, so any thread reading this node
+     * will see the previous children or the new ones, but never an empty or partially filled map.<br>
+     * Every previous child is detached, and the provided node must not be used after this operation.
+     *
+     * @param node the map node to take children from.
+     * @return     this object itself.
+     */
+    @NotNull
+    public MapNode swap(@NotNull MapNode node) {
+        checkMutable();
+        final Map<String, SettingsNode> map = newMap();
+        for (Entry<String, SettingsNode> entry : node.getValue().entrySet()) {
+            map.put(entry.getKey(), entry.getValue().setParent(this));
+        }
+        final Map<String, SettingsNode> previous = getValue();
+        publish(map);
+        for (SettingsNode child : previous.values()) {
+            invalidate(child);
+            remove(child);
+            if (child instanceof NodeKey && ((NodeKey<?>) child).isOwner(this)) {
+                ((NodeKey<?>) child).setOwner(null);
+            }
+        }
+        for (SettingsNode child : map.values()) {
+            add(child);
+        }
+        return this;
+    }
+
     @Override
     public @NotNull SettingsNode edit(@NotNull Function<SettingsNode, SettingsNode> function) {
+        checkMutable();
         final Map<String, SettingsNode> map = getValue();
         for (String key : new HashSet<>(map.keySet())) {
             final SettingsNode node = map.get(key);
@@ -439,13 +1088,57 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
         return this;
     }
 
+    @Override
+    protected void invalidate() {
+        super.invalidate();
+        for (SettingsNode node : getValue().values()) {
+            invalidate(node);
+        }
+    }
+
+    private static void invalidate(@NotNull SettingsNode node) {
+        if (node instanceof NodeValue) {
+            ((NodeValue<?>) node).invalidate();
+        }
+    }
+
     /**
-     * Executed method when any node is deleted by the value itself.
+     * Executed method when the storage of this map or any sub map was shared by a {@link NodeInterner}.<br>
+     * By default, the call is propagated to the parent node.
+     *
+     * @param node the interned node.
+     */
+    protected void interned(@NotNull MapNode node) {
+        final MapNode parent = getParent();
+        if (parent != null) {
+            parent.interned(node);
+        }
+    }
+
+    /**
+     * Executed method when any node is added into this map or any sub map.<br>
+     * By default, the call is propagated to the parent node.
+     *
+     * @param node the added node.
+     */
+    protected void add(@NotNull SettingsNode node) {
+        final MapNode parent = getParent();
+        if (parent != null) {
+            parent.add(node);
+        }
+    }
+
+    /**
+     * Executed method when any node is deleted from this map or any sub map.<br>
+     * By default, the call is propagated to the parent node.
      *
      * @param node the deleted node.
      */
     protected void remove(@NotNull SettingsNode node) {
-        // empty default method
+        final MapNode parent = getParent();
+        if (parent != null) {
+            parent.remove(node);
+        }
     }
 
     /**
@@ -482,13 +1175,21 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      * @return          true if any node was removed.
      */
     public boolean removeIf(@NotNull Predicate<SettingsNode> predicate, boolean deep) {
+        checkMutable();
         final boolean result = getValue().entrySet().removeIf((entry) -> {
             if (predicate.test(entry.getValue())) {
+                changed(entry.getKey(), true);
+                unindexKey(entry.getKey(), entry.getValue());
+                invalidate(entry.getValue());
                 remove(entry.getValue());
                 return true;
             }
             return false;
         });
+        if (result) {
+            snapshotPending++;
+            modified();
+        }
         final MapNode parent;
         if (deep && isEmpty() && (parent = getParent()) != null) {
             parent.remove(getKey(), true);
@@ -515,6 +1216,9 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
      */
     @NotNull
     protected SettingsNode child(@NotNull String key) {
+        if (isFrozen()) {
+            return NodeValue.empty();
+        }
         final SettingsNode node = new ObjectNode(this, key, null);
         put(key, node);
         return node;
@@ -660,41 +1364,186 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
     @Nullable
     @Override
     public SettingsNode put(String key, SettingsNode value) {
+        checkMutable();
         value.setParent(this);
-        return getValue().put(key, value);
+        final SettingsNode previous = getValue().put(key, value);
+        indexKey(key, previous);
+        if (previous != null && previous != value) {
+            invalidate(previous);
+            remove(previous);
+        }
+        modified(key, previous == null);
+        add(value);
+        return previous;
     }
 
     @Override
     public SettingsNode remove(Object key) {
-        return getValue().remove(key);
+        checkMutable();
+        final SettingsNode previous = getValue().remove(key);
+        if (previous != null) {
+            removed((String) key, previous);
+        }
+        return previous;
+    }
+
+    private void removed(@NotNull String key, @NotNull SettingsNode previous) {
+        unindexKey(key, previous);
+        invalidate(previous);
+        modified(key, true);
+        remove(previous);
     }
 
     @Override
     public void putAll(@NotNull Map<? extends String, ? extends SettingsNode> m) {
-        getValue().putAll(m);
+        for (Entry<? extends String, ? extends SettingsNode> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
     public void clear() {
+        checkMutable();
+        if (isEmpty()) {
+            return;
+        }
+        // Nodes are removed before any hook is executed
+        final SettingsNode[] nodes = getValue().values().toArray(new SettingsNode[0]);
         getValue().clear();
+        for (SettingsNode node : nodes) {
+            invalidate(node);
+            remove(node);
+        }
+        modified();
+        ignoreCaseSource = null;
+        ignoreCaseIndex = null;
     }
 
     @NotNull
     @Override
     public Set<String> keySet() {
-        return getValue().keySet();
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<String> iterator() {
+                    return new NodeIterator<>(getValue().entrySet().iterator()) {
+                        @Override
+                        String element(@NotNull Entry<String, SettingsNode> entry) {
+                            return entry.getKey();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return MapNode.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    return MapNode.this.remove(o) != null;
+                }
+
+                @Override
+                public void clear() {
+                    MapNode.this.clear();
+                }
+            };
+        }
+        return keySet;
     }
 
     @NotNull
     @Override
     public Collection<SettingsNode> values() {
-        return getValue().values();
+        if (values == null) {
+            values = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<SettingsNode> iterator() {
+                    return new NodeIterator<>(getValue().entrySet().iterator()) {
+                        @Override
+                        SettingsNode element(@NotNull Entry<String, SettingsNode> entry) {
+                            return entry.getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return MapNode.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsValue(o);
+                }
+
+                @Override
+                public void clear() {
+                    MapNode.this.clear();
+                }
+            };
+        }
+        return values;
     }
 
     @NotNull
     @Override
     public Set<Entry<String, SettingsNode>> entrySet() {
-        return getValue().entrySet();
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public @NotNull Iterator<Entry<String, SettingsNode>> iterator() {
+                    final Map<String, SettingsNode> map = getValue();
+                    if (map instanceof NodeMap) {
+                        // Default map entries are able to replace values with node hooks
+                        return new NodeIterator<>(((NodeMap<SettingsNode>) map).entryIterator(MapNode.this::put)) {
+                            @Override
+                            Entry<String, SettingsNode> element(@NotNull Entry<String, SettingsNode> entry) {
+                                return entry;
+                            }
+                        };
+                    }
+                    return new NodeIterator<>(map.entrySet().iterator()) {
+                        @Override
+                        Entry<String, SettingsNode> element(@NotNull Entry<String, SettingsNode> entry) {
+                            return new NodeEntry(entry);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return MapNode.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return getValue().entrySet().contains(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    if (!contains(o)) {
+                        return false;
+                    }
+                    MapNode.this.remove(((Entry<?, ?>) o).getKey());
+                    return true;
+                }
+
+                @Override
+                public void clear() {
+                    MapNode.this.clear();
+                }
+            };
+        }
+        return entrySet;
     }
 
     // Default iterator implementation
@@ -702,6 +1551,92 @@ public class MapNode extends NodeKey<Map<String, SettingsNode>> implements Map<S
     @NotNull
     @Override
     public Iterator<Entry<String, SettingsNode>> iterator() {
-        return getValue().entrySet().iterator();
+        return entrySet().iterator();
+    }
+
+    /**
+     * Iterator over map entries that removes nodes with the same hooks as {@link #remove(Object)}.
+     *
+     * @param <E> the element type.
+     */
+    private abstract class NodeIterator<E> implements Iterator<E> {
+
+        private final Iterator<Entry<String, SettingsNode>> iterator;
+        private Entry<String, SettingsNode> last;
+
+        NodeIterator(@NotNull Iterator<Entry<String, SettingsNode>> iterator) {
+            this.iterator = iterator;
+        }
+
+        abstract E element(@NotNull Entry<String, SettingsNode> entry);
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+            last = iterator.next();
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            checkMutable();
+            final String key = last.getKey();
+            final SettingsNode previous = last.getValue();
+            iterator.remove();
+            last = null;
+            removed(key, previous);
+        }
+    }
+
+    /**
+     * Map entry that replaces nodes with the same hooks as {@link #put(String, SettingsNode)}.<br>
+     * This wrapper is only used for custom map values, default map entries already use the same hooks.
+     */
+    private final class NodeEntry implements Entry<String, SettingsNode> {
+
+        private final Entry<String, SettingsNode> entry;
+
+        NodeEntry(@NotNull Entry<String, SettingsNode> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public String getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public SettingsNode getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public SettingsNode setValue(SettingsNode value) {
+            return put(entry.getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            final Entry<?, ?> that = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), that.getKey()) && Objects.equals(getValue(), that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
     }
 }
@@ -0,0 +1,593 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.type.Conversions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable view of a map node values that keeps the key insertion order.<br>
+ * Entries are saved into a persistent hash array mapped trie, so any edit creates a new snapshot that
+ * only copies the path to edited entry, sharing every untouched entry and sub map with the previous snapshot.<br>
+ * Sub maps are saved as snapshots and lists as unmodifiable lists, so the same instance can be
+ * read from multiple threads without any lock while a new version is created.
+ *
+ * @author Rubenicos
+ */
+public final class MapSnapshot {
+
+    private static final MapSnapshot EMPTY = new MapSnapshot(null, 0, 0);
+
+    // Bits of hash used by every trie level
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Object root;
+    private final int size;
+    // Insertion order of the next added entry
+    private final int nextOrder;
+
+    // Lazily computed entries in insertion order
+    private transient volatile Entry[] ordered;
+    private transient int hash;
+
+    /**
+     * Get the empty snapshot instance.
+     *
+     * @return an empty snapshot.
+     */
+    @NotNull
+    public static MapSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create a snapshot with the provided map values.<br>
+     * Any map or list inside the provided map is also converted into immutable objects.
+     *
+     * @param map the map to copy.
+     * @return    a snapshot with the same values.
+     */
+    @NotNull
+    public static MapSnapshot of(@NotNull Map<?, ?> map) {
+        if (map instanceof MapNode) {
+            return ((MapNode) map).snapshot();
+        }
+        MapSnapshot snapshot = EMPTY;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            final Object value = freeze(entry.getValue());
+            if (value != null) {
+                snapshot = snapshot.put(String.valueOf(entry.getKey()), value);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Convert the provided value into an immutable object that can be saved into snapshot.
+     *
+     * @param value the value to convert.
+     * @return      an immutable object, null if the value is null.
+     */
+    @Nullable
+    static Object freeze(@Nullable Object value) {
+        if (value == null || value instanceof MapSnapshot) {
+            return value;
+        }
+        if (value instanceof MapNode) {
+            return ((MapNode) value).snapshot();
+        }
+        if (value instanceof SettingsNode) {
+            return freeze(((SettingsNode) value).getValue());
+        }
+        if (value instanceof Map) {
+            return of((Map<?, ?>) value);
+        }
+        if (value instanceof Iterable) {
+            // Avoid node creation from compact lists
+            final Iterable<?> iterable = value instanceof NodeList ? ((NodeList) value).values() : (Iterable<?>) value;
+            final List<Object> list = new ArrayList<>();
+            for (Object element : iterable) {
+                list.add(freeze(element));
+            }
+            return Collections.unmodifiableList(list);
+        }
+        return value;
+    }
+
+    private MapSnapshot(@Nullable Object root, int size, int nextOrder) {
+        this.root = root;
+        this.size = size;
+        this.nextOrder = nextOrder;
+    }
+
+    /**
+     * Get the number of entries inside this snapshot.
+     *
+     * @return an entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if this snapshot doesn't have any entry.
+     *
+     * @return true if the snapshot is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check if the provided key path exists inside this snapshot.
+     *
+     * @param path the key path.
+     * @return     true if any value is associated with the key path.
+     */
+    public boolean contains(@NotNull String... path) {
+        return get(path) != null;
+    }
+
+    /**
+     * Get the value associated with the provided key.
+     *
+     * @param key the value key.
+     * @return    a value, null if the key doesn't exist.
+     */
+    @Nullable
+    public Object get(@NotNull String key) {
+        final Entry entry = find(root, key, key.hashCode(), 0);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Get the value associated with the provided key path.
+     *
+     * @param path the key path.
+     * @return     a value, null if the path doesn't exist.
+     */
+    @Nullable
+    public Object get(@NotNull String... path) {
+        MapSnapshot snapshot = this;
+        for (int i = 0; i < path.length - 1; i++) {
+            final Object value = snapshot.get(path[i]);
+            if (!(value instanceof MapSnapshot)) {
+                return null;
+            }
+            snapshot = (MapSnapshot) value;
+        }
+        return path.length == 0 ? this : snapshot.get(path[path.length - 1]);
+    }
+
+    /**
+     * Get the value associated with the provided node path.
+     *
+     * @param path the node path.
+     * @return     a value, null if the path doesn't exist.
+     */
+    @Nullable
+    public Object get(@NotNull NodePath path) {
+        Object value = this;
+        for (int i = 0; i < path.size(); i++) {
+            if (!(value instanceof MapSnapshot)) {
+                return null;
+            }
+            final Entry entry = find(((MapSnapshot) value).root, path.getKey(i), path.getKey(i).hashCode(), 0);
+            if (entry == null) {
+                return null;
+            }
+            value = entry.value;
+        }
+        return value;
+    }
+
+    /**
+     * Get the value associated with the provided key path converted into the required type.
+     *
+     * @param type the required type class.
+     * @param path the key path.
+     * @return     a converted value, null if the path doesn't exist or the value cannot be converted.
+     * @param <E>  the required type.
+     */
+    @Nullable
+    public <E> E get(@NotNull Class<E> type, @NotNull String... path) {
+        final Object value = get(path);
+        return value == null ? null : Conversions.convert(value, type);
+    }
+
+    /**
+     * Get every key inside this snapshot in insertion order.
+     *
+     * @return an unmodifiable list of keys.
+     */
+    @NotNull
+    public List<String> keys() {
+        final Entry[] entries = ordered();
+        final String[] keys = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            keys[i] = entries[i].key;
+        }
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Perform the given action for every entry inside this snapshot in insertion order.
+     *
+     * @param action the action to perform.
+     */
+    public void forEach(@NotNull BiConsumer<String, Object> action) {
+        for (Entry entry : ordered()) {
+            action.accept(entry.key, entry.value);
+        }
+    }
+
+    /**
+     * Create a new snapshot with the provided value associated with the key.<br>
+     * If the key already exists, its insertion order is kept.
+     *
+     * @param key   the value key.
+     * @param value the value to save, null to remove the key.
+     * @return      a new snapshot, or this snapshot if nothing changed.
+     */
+    @NotNull
+    public MapSnapshot with(@NotNull String key, @Nullable Object value) {
+        if (value == null) {
+            return without(key);
+        }
+        return put(key, freeze(value));
+    }
+
+    /**
+     * Create a new snapshot with the provided value associated with the key path.<br>
+     * Any missing sub map on the path is created, and any non-map value on it is replaced.
+     *
+     * @param path  the key path.
+     * @param value the value to save, null to remove the path.
+     * @return      a new snapshot, or this snapshot if nothing changed.
+     */
+    @NotNull
+    public MapSnapshot with(@NotNull String[] path, @Nullable Object value) {
+        if (path.length == 0) {
+            throw new IllegalArgumentException("Cannot set value into empty path");
+        }
+        if (path.length == 1) {
+            return with(path[0], value);
+        }
+        final Object current = get(path[0]);
+        final MapSnapshot child = current instanceof MapSnapshot ? (MapSnapshot) current : EMPTY;
+        if (value == null && child == EMPTY) {
+            return this;
+        }
+        final MapSnapshot edited = child.with(Arrays.copyOfRange(path, 1, path.length), value);
+        return edited == child ? this : put(path[0], edited);
+    }
+
+    /**
+     * Create a new snapshot without the provided key path.
+     *
+     * @param path the key path.
+     * @return     a new snapshot, or this snapshot if the path doesn't exist.
+     */
+    @NotNull
+    public MapSnapshot without(@NotNull String... path) {
+        if (path.length == 0) {
+            return this;
+        }
+        final String key = path[0];
+        final int hash = key.hashCode();
+        final Entry entry = find(root, key, hash, 0);
+        if (entry == null) {
+            return this;
+        }
+        if (path.length > 1) {
+            if (!(entry.value instanceof MapSnapshot)) {
+                return this;
+            }
+            final MapSnapshot child = (MapSnapshot) entry.value;
+            final MapSnapshot edited = child.without(Arrays.copyOfRange(path, 1, path.length));
+            return edited == child ? this : put(key, edited);
+        }
+        if (size == 1) {
+            return EMPTY;
+        }
+        return new MapSnapshot(remove(root, key, hash, 0), size - 1, nextOrder);
+    }
+
+    /**
+     * Convert this snapshot into a mutable map of literal objects.
+     *
+     * @return a newly generated map with insertion order.
+     */
+    @NotNull
+    public Map<String, Object> asLiteralObject() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        for (Entry entry : ordered()) {
+            map.put(entry.key, literal(entry.value));
+        }
+        return map;
+    }
+
+    @Nullable
+    private static Object literal(@Nullable Object value) {
+        if (value instanceof MapSnapshot) {
+            return ((MapSnapshot) value).asLiteralObject();
+        }
+        if (value instanceof List) {
+            final List<Object> list = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                list.add(literal(element));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    /**
+     * Convert this snapshot into a mutable map node.
+     *
+     * @return a newly generated map node.
+     */
+    @NotNull
+    public MapNode toMapNode() {
+        return new MapNode().merge(asLiteralObject(), true);
+    }
+
+    @NotNull
+    private MapSnapshot put(@NotNull String key, @NotNull Object value) {
+        final int hash = key.hashCode();
+        final Entry previous = find(root, key, hash, 0);
+        if (previous != null) {
+            if (previous.value == value) {
+                return this;
+            }
+            return new MapSnapshot(put(root, new Entry(key, hash, value, previous.order), 0), size, nextOrder);
+        }
+        return new MapSnapshot(put(root, new Entry(key, hash, value, nextOrder), 0), size + 1, nextOrder + 1);
+    }
+
+    @NotNull
+    private Entry[] ordered() {
+        Entry[] entries = this.ordered;
+        if (entries == null) {
+            entries = new Entry[size];
+            collect(root, entries, 0);
+            Arrays.sort(entries, Comparator.comparingInt(entry -> entry.order));
+            this.ordered = entries;
+        }
+        return entries;
+    }
+
+    // Trie operations, a trie node is an Entry, a Branch or a Collision
+
+    @Nullable
+    private static Entry find(@Nullable Object node, @NotNull String key, int hash, int shift) {
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            final int bit = 1 << ((hash >>> shift) & MASK);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.slots[Integer.bitCount(branch.bitmap & (bit - 1))];
+            shift += BITS;
+        }
+        if (node instanceof Entry) {
+            final Entry entry = (Entry) node;
+            return entry.hash == hash && entry.key.equals(key) ? entry : null;
+        }
+        if (node instanceof Collision) {
+            for (Entry entry : ((Collision) node).entries) {
+                if (entry.key.equals(key)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private static Object put(@Nullable Object node, @NotNull Entry entry, int shift) {
+        if (node == null) {
+            return entry;
+        }
+        if (node instanceof Entry) {
+            final Entry current = (Entry) node;
+            if (current.hash == entry.hash && current.key.equals(entry.key)) {
+                return entry;
+            }
+            return merge(current, entry, shift);
+        }
+        if (node instanceof Collision) {
+            final Collision collision = (Collision) node;
+            if (collision.hash != entry.hash) {
+                return merge(collision, entry, shift);
+            }
+            final Entry[] entries = collision.entries;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i].key.equals(entry.key)) {
+                    final Entry[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new Collision(entry.hash, copy);
+                }
+            }
+            final Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new Collision(entry.hash, copy);
+        }
+        final Branch branch = (Branch) node;
+        final int bit = 1 << ((entry.hash >>> shift) & MASK);
+        final int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        if ((branch.bitmap & bit) == 0) {
+            final Object[] slots = new Object[branch.slots.length + 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            slots[index] = entry;
+            System.arraycopy(branch.slots, index, slots, index + 1, branch.slots.length - index);
+            return new Branch(branch.bitmap | bit, slots);
+        }
+        final Object[] slots = branch.slots.clone();
+        slots[index] = put(slots[index], entry, shift + BITS);
+        return new Branch(branch.bitmap, slots);
+    }
+
+    @NotNull
+    private static Object merge(@NotNull Object current, @NotNull Entry entry, int shift) {
+        final int currentHash = current instanceof Entry ? ((Entry) current).hash : ((Collision) current).hash;
+        if (shift >= Integer.SIZE) {
+            // Every hash bit is used, so both hashes are equal
+            return new Collision(entry.hash, new Entry[] { (Entry) current, entry });
+        }
+        final int currentIndex = (currentHash >>> shift) & MASK;
+        final int index = (entry.hash >>> shift) & MASK;
+        if (currentIndex == index) {
+            return new Branch(1 << index, new Object[] { merge(current, entry, shift + BITS) });
+        }
+        final Object[] slots = currentIndex < index ? new Object[] { current, entry } : new Object[] { entry, current };
+        return new Branch((1 << currentIndex) | (1 << index), slots);
+    }
+
+    @Nullable
+    private static Object remove(@NotNull Object node, @NotNull String key, int hash, int shift) {
+        if (node instanceof Entry) {
+            return null;
+        }
+        if (node instanceof Collision) {
+            final Entry[] entries = ((Collision) node).entries;
+            if (entries.length == 2) {
+                return entries[0].key.equals(key) ? entries[1] : entries[0];
+            }
+            final Entry[] copy = new Entry[entries.length - 1];
+            int i = 0;
+            for (Entry entry : entries) {
+                if (!entry.key.equals(key)) {
+                    copy[i++] = entry;
+                }
+            }
+            return new Collision(hash, copy);
+        }
+        final Branch branch = (Branch) node;
+        final int bit = 1 << ((hash >>> shift) & MASK);
+        final int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        final Object slot = remove(branch.slots[index], key, hash, shift + BITS);
+        if (slot == null) {
+            if (branch.slots.length == 1) {
+                return null;
+            }
+            if (branch.slots.length == 2 && shift > 0 && !(branch.slots[1 - index] instanceof Branch)) {
+                // Keep a single entry at upper level
+                return branch.slots[1 - index];
+            }
+            final Object[] slots = new Object[branch.slots.length - 1];
+            System.arraycopy(branch.slots, 0, slots, 0, index);
+            System.arraycopy(branch.slots, index + 1, slots, index, slots.length - index);
+            return new Branch(branch.bitmap & ~bit, slots);
+        }
+        if (branch.slots.length == 1 && shift > 0 && !(slot instanceof Branch)) {
+            return slot;
+        }
+        final Object[] slots = branch.slots.clone();
+        slots[index] = slot;
+        return new Branch(branch.bitmap, slots);
+    }
+
+    private static int collect(@Nullable Object node, @NotNull Entry[] entries, int count) {
+        if (node instanceof Entry) {
+            entries[count++] = (Entry) node;
+        } else if (node instanceof Collision) {
+            for (Entry entry : ((Collision) node).entries) {
+                entries[count++] = entry;
+            }
+        } else if (node instanceof Branch) {
+            for (Object slot : ((Branch) node).slots) {
+                count = collect(slot, entries, count);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MapSnapshot)) return false;
+
+        final MapSnapshot that = (MapSnapshot) o;
+        if (size != that.size || hashCode() != that.hashCode()) {
+            return false;
+        }
+        for (Entry entry : ordered()) {
+            final Entry other = find(that.root, entry.key, entry.hash, 0);
+            if (other == null || !Objects.equals(entry.value, other.value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && size > 0) {
+            for (Entry entry : ordered()) {
+                h += entry.hash ^ Objects.hashCode(entry.value);
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (Entry entry : ordered()) {
+            joiner.add(entry.key + "=" + entry.value);
+        }
+        return joiner.toString();
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final int hash;
+        private final Object value;
+        private final int order;
+
+        Entry(@NotNull String key, int hash, @NotNull Object value, int order) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.order = order;
+        }
+    }
+
+    private static final class Branch {
+
+        private final int bitmap;
+        private final Object[] slots;
+
+        Branch(int bitmap, @NotNull Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private static final class Collision {
+
+        private final int hash;
+        private final Entry[] entries;
+
+        Collision(int hash, @NotNull Entry[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Class to share structurally identical data between nodes.<br>
+ * Every node has its own parent and key, so a node itself cannot be shared between trees,
+ * instead, any immutable data that is repeated across nodes is replaced by a single instance:
+ * scalar values, comment lines and the storage of compact lists.<br>
+ * Frozen maps that only contain scalar values without comments, like item templates, are
+ * converted into a raw storage that is shared by every equal map, so their child nodes are
+ * returned as frozen views and don't take any memory while they are not used.<br>
+ * Shared data is copied before any modification made with node methods, so interned nodes
+ * behave the same way as any other node.<br>
+ * The same interner can be used on multiple trees and threads to share data between them,
+ * every shared instance is weakly referenced, so the interner doesn't keep any unused data.<br>
+ * A tree must be interned before it's read by other threads, since frozen nodes are not
+ * synchronized while their storage is replaced.
+ *
+ * @author Rubenicos
+ */
+public class NodeInterner {
+
+    private final WeakPool<Object> values = new WeakPool<>(Object::hashCode, Object::equals);
+    private final WeakPool<List<String>> comments = new WeakPool<>(List::hashCode, List::equals);
+    private final WeakPool<NodeList> lists = new WeakPool<>(NodeList::rawHashCode, NodeList::rawEquals);
+    private final WeakPool<NodeMap<?>> maps = new WeakPool<>(NodeMap::rawHashCode, NodeMap::rawEquals);
+
+    private long sharedValues;
+    private long sharedComments;
+    private long sharedLists;
+    private long sharedMaps;
+    // True if any map storage was shared on the current intern call
+    private boolean mapShared;
+
+    /**
+     * Share any repeated data from provided node and its children.
+     *
+     * @param node the node to intern.
+     * @return     the provided node.
+     * @param <T>  the node type.
+     */
+    @NotNull
+    @Contract("_ -> param1")
+    public synchronized <T extends SettingsNode> T intern(@NotNull T node) {
+        mapShared = false;
+        internNode(node);
+        if (mapShared && node instanceof MapNode) {
+            ((MapNode) node).interned((MapNode) node);
+        }
+        return node;
+    }
+
+    private void internNode(@NotNull SettingsNode node) {
+        internComments(node);
+        if (node.isMap()) {
+            final MapNode map = node.asMapNode();
+            for (SettingsNode child : map.getValue().values()) {
+                internNode(child);
+            }
+            internMap(map);
+        } else if (node.isList()) {
+            internList(node.asListNode());
+        } else if (node instanceof NodeValue && !(node instanceof PrimitiveNode && ((PrimitiveNode) node).isPrimitive())) {
+            // Primitive values don't have any box to share
+            internValue((NodeValue<?>) node);
+        }
+    }
+
+    private void internComments(@NotNull SettingsNode node) {
+        final List<String> topComment = internComment(node.getTopComment());
+        final List<String> sideComment = internComment(node.getSideComment());
+        if (topComment == node.getTopComment() && sideComment == node.getSideComment()) {
+            return;
+        }
+        if (node instanceof NodeValue) {
+            // Frozen nodes can also share their comments
+            ((NodeValue<?>) node).shareComments(topComment, sideComment);
+        } else {
+            if (topComment != node.getTopComment()) {
+                node.setTopComment(topComment);
+            }
+            if (sideComment != node.getSideComment()) {
+                node.setSideComment(sideComment);
+            }
+        }
+    }
+
+    @Nullable
+    private List<String> internComment(@Nullable List<String> comment) {
+        if (comment == null || comment.isEmpty()) {
+            return comment;
+        }
+        final List<String> shared = comments.get(comment);
+        if (shared == null) {
+            final List<String> copy = CommentLines.of(comment);
+            comments.add(copy);
+            return copy;
+        }
+        if (shared != comment) {
+            sharedComments++;
+        }
+        return shared;
+    }
+
+    private void internValue(@NotNull NodeValue<?> node) {
+        final Object value = node.getSourceValue();
+        if (node.getFaceValue() != null || !isImmutable(value)) {
+            return;
+        }
+        final Object shared = values.get(value);
+        if (shared == null) {
+            values.add(value);
+        } else if (shared != value) {
+            node.shareSourceValue(shared);
+            sharedValues++;
+        }
+    }
+
+    private void internList(@NotNull ListNode node) {
+        final List<SettingsNode> value = node.getValue();
+        if (value instanceof NodeList && ((NodeList) value).isRaw()) {
+            final NodeList list = (NodeList) value;
+            final NodeList shared = lists.get(list);
+            if (shared == null) {
+                lists.add(list);
+            } else if (shared != list) {
+                list.share(shared);
+                sharedLists++;
+            }
+            return;
+        }
+        if (value instanceof NodeList) {
+            // Avoid node creation
+            for (Object element : ((NodeList) value).values()) {
+                if (element instanceof SettingsNode) {
+                    internNode((SettingsNode) element);
+                }
+            }
+        } else {
+            for (SettingsNode element : value) {
+                internNode(element);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void internMap(@NotNull MapNode node) {
+        if (!node.isFrozen() || !(node.getValue() instanceof NodeMap)) {
+            return;
+        }
+        final NodeMap<SettingsNode> map = (NodeMap<SettingsNode>) node.getValue();
+        if (map.isEmpty() || map.isShared()) {
+            return;
+        }
+        final NodeMap<Object> raw = new NodeMap<>();
+        for (Map.Entry<String, SettingsNode> entry : map.entrySet()) {
+            final SettingsNode child = entry.getValue();
+            if (!isRawChild(child)) {
+                return;
+            }
+            raw.put(entry.getKey(), child.getSourceValue());
+        }
+        raw.freeze();
+        NodeMap<?> shared = maps.get(raw);
+        if (shared == null) {
+            maps.add(raw);
+            shared = raw;
+        } else {
+            sharedMaps++;
+        }
+        map.share(shared, (key, value) -> ((NodeValue<?>) NodeKey.of(node, key, value)).freeze());
+        mapShared = true;
+    }
+
+    private static boolean isRawChild(@NotNull SettingsNode node) {
+        // The child must be created again from its value as the same node
+        if (!(node instanceof NodeKey) || node.getTopComment() != null || node.getSideComment() != null) {
+            return false;
+        }
+        final NodeKey<?> child = (NodeKey<?>) node;
+        if (child.getFaceValue() != null) {
+            return false;
+        }
+        final Object value = child.getSourceValue();
+        final Class<?> type;
+        if (value instanceof Integer) {
+            type = IntNode.class;
+        } else if (value instanceof Long) {
+            type = LongNode.class;
+        } else if (value instanceof Double) {
+            type = DoubleNode.class;
+        } else if (value instanceof Boolean) {
+            type = BooleanNode.class;
+        } else if (value == null || isImmutable(value)) {
+            type = ObjectNode.class;
+        } else {
+            return false;
+        }
+        return child.getClass() == type;
+    }
+
+    private static boolean isImmutable(@Nullable Object value) {
+        if (value == null) {
+            return false;
+        }
+        final Class<?> type = value.getClass();
+        return type == String.class
+                || type == Integer.class || type == Long.class || type == Double.class || type == Float.class
+                || type == Short.class || type == Byte.class || type == Boolean.class || type == Character.class
+                || type == BigInteger.class || type == BigDecimal.class
+                || value instanceof Enum;
+    }
+
+    /**
+     * Get the number of scalar values that were replaced by a shared instance.
+     *
+     * @return a value count.
+     */
+    public synchronized long getSharedValues() {
+        return sharedValues;
+    }
+
+    /**
+     * Get the number of comment lists that were replaced by a shared instance.
+     *
+     * @return a comment count.
+     */
+    public synchronized long getSharedComments() {
+        return sharedComments;
+    }
+
+    /**
+     * Get the number of compact lists that were sharing their storage with other list.
+     *
+     * @return a list count.
+     */
+    public synchronized long getSharedLists() {
+        return sharedLists;
+    }
+
+    /**
+     * Get the number of frozen maps that were sharing their storage with other map.
+     *
+     * @return a map count.
+     */
+    public synchronized long getSharedMaps() {
+        return sharedMaps;
+    }
+
+    /**
+     * Remove every saved instance from this interner and reset statistics.
+     */
+    public synchronized void clear() {
+        values.clear();
+        comments.clear();
+        lists.clear();
+        maps.clear();
+        sharedValues = 0;
+        sharedComments = 0;
+        sharedLists = 0;
+        sharedMaps = 0;
+    }
+
+    /**
+     * Pool of weakly referenced instances compared by content.<br>
+     * Any collected instance is removed from the pool on its next access.
+     *
+     * @param <T> the instance type.
+     */
+    private static final class WeakPool<T> {
+
+        private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+        private final Map<Key, Key> keys = new HashMap<>();
+        private final ToIntFunction<T> hash;
+        private final BiPredicate<T, T> equality;
+
+        WeakPool(@NotNull ToIntFunction<T> hash, @NotNull BiPredicate<T, T> equality) {
+            this.hash = hash;
+            this.equality = equality;
+        }
+
+        @Nullable
+        T get(@NotNull T value) {
+            expunge();
+            final Key key = keys.get(new Key(value, null));
+            return key == null ? null : key.get();
+        }
+
+        void add(@NotNull T value) {
+            final Key key = new Key(value, queue);
+            keys.put(key, key);
+        }
+
+        void clear() {
+            expunge();
+            keys.clear();
+        }
+
+        private void expunge() {
+            Reference<? extends T> reference;
+            while ((reference = queue.poll()) != null) {
+                keys.remove(reference);
+            }
+        }
+
+        private final class Key extends WeakReference<T> {
+
+            private final int hashCode;
+
+            Key(@NotNull T value, @Nullable ReferenceQueue<T> queue) {
+                super(value, queue);
+                this.hashCode = hash.applyAsInt(value);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean equals(Object object) {
+                if (this == object) return true;
+                if (!(object instanceof WeakPool<?>.Key)) return false;
+
+                final Key that = (Key) object;
+                if (hashCode != that.hashCode) return false;
+                final T value = get();
+                final T other = that.get();
+                // Collected instances are only equal to themselves
+                return value != null && other != null && equality.test(value, other);
+            }
+
+            @Override
+            public int hashCode() {
+                return hashCode;
+            }
+        }
+    }
+}
@@ -16,7 +16,8 @@ import java.util.Objects;
  */
 public class NodeKey<V> extends NodeValue<V> {
 
-    private MapNode parent;
+    // Parent map or owner list
+    private Object owner;
     private String key;
 
     /**
@@ -37,6 +38,14 @@ public class NodeKey<V> extends NodeValue<V> {
             return new MapNode(parent, key).merge((Map<?, ?>) object);
         } else if (object instanceof Iterable) {
             return new ListNode(parent, key).merge((Iterable<?>) object);
+        } else if (object instanceof Integer) {
+            return new IntNode(parent, key, (Integer) object);
+        } else if (object instanceof Long) {
+            return new LongNode(parent, key, (Long) object);
+        } else if (object instanceof Double) {
+            return new DoubleNode(parent, key, (Double) object);
+        } else if (object instanceof Boolean) {
+            return new BooleanNode(parent, key, (Boolean) object);
         } else {
             return new ObjectNode(parent, key, object);
         }
@@ -50,7 +59,7 @@ public class NodeKey<V> extends NodeValue<V> {
      */
     protected NodeKey(@Nullable MapNode parent, @Nullable V value) {
         super(value);
-        this.parent = parent;
+        this.owner = parent;
         this.key = null;
     }
 
@@ -63,13 +72,13 @@ public class NodeKey<V> extends NodeValue<V> {
      */
     public NodeKey(@Nullable MapNode parent, @Nullable String key, @Nullable V value) {
         super(value);
-        this.parent = parent;
+        this.owner = parent;
         this.key = key;
     }
 
     @Override
     public @Nullable MapNode getParent() {
-        return parent;
+        return owner instanceof MapNode ? (MapNode) owner : null;
     }
 
     @Override
@@ -80,22 +89,59 @@ public class NodeKey<V> extends NodeValue<V> {
     @NotNull
     @Override
     public SettingsNode setParent(MapNode parent) {
-        this.parent = parent;
+        checkMutable();
+        this.owner = parent;
         return this;
     }
 
+    /**
+     * Set the list node that owns this node.<br>
+     * This is not a node modification, so frozen nodes are ignored.
+     *
+     * @param owner the owner object.
+     */
+    void setOwner(@Nullable Object owner) {
+        if (!isFrozen()) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Check if the provided object is the owner of this node.
+     *
+     * @param owner the owner object.
+     * @return      true if this node is owned by provided object.
+     */
+    boolean isOwner(@Nullable Object owner) {
+        return this.owner == owner;
+    }
+
+    @Override
+    void notifyOwner() {
+        final Object owner = this.owner;
+        if (owner instanceof MapNode && key != null) {
+            ((MapNode) owner).modified(key, false);
+        } else if (owner instanceof NodeValue) {
+            ((NodeValue<?>) owner).modified();
+        }
+    }
+
     @NotNull
     @Override
     public SettingsNode setKey(@Nullable String key) {
-        if (this.parent != null) {
+        checkMutable();
+        final MapNode parent = getParent();
+        if (parent != null) {
             if (this.key != null && !Objects.equals(this.key, key)) {
-                this.parent.remove(this.key);
+                parent.remove(this.key);
             }
+            this.key = key;
             if (key != null) {
-                this.parent.put(key, this);
+                parent.put(key, this);
             }
+        } else {
+            this.key = key;
         }
-        this.key = key;
         return this;
     }
 }
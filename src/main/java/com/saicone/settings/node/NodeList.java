@@ -0,0 +1,591 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Compact list of settings nodes used by default as {@link ListNode} value.<br>
+ * Scalar values are saved as raw objects, or as primitive arrays if every value is an
+ * integer, long or double, so lists that are only read as values don't hold a node per element.<br>
+ * Any raw element is saved as node the first time it's accessed as node, so only the elements
+ * that were never returned as node are kept as raw values.
+ *
+ * @author Rubenicos
+ */
+final class NodeList extends AbstractList<SettingsNode> implements RandomAccess {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private static final int OBJECT = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+
+    private int type = OBJECT;
+    private int size;
+
+    // Object type, raw values and settings nodes
+    private Object[] elements = EMPTY;
+
+    // Primitive types, element nodes are saved separately
+    private int[] ints;
+    private long[] longs;
+    private double[] doubles;
+    private SettingsNode[] nodes;
+    // True if the storage arrays are shared with other lists
+    private boolean shared;
+    // True if the list cannot be modified
+    private boolean frozen;
+    // The list node that owns this list
+    private ListNode owner;
+
+    // Element nodes access with acquire/release semantics, so concurrent readers can save raw elements as node
+    private static final VarHandle NODES;
+    private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle NODE = MethodHandles.arrayElementVarHandle(SettingsNode[].class);
+
+    static {
+        try {
+            NODES = MethodHandles.lookup().findVarHandle(NodeList.class, "nodes", SettingsNode[].class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Check if the provided object can be saved as raw value.
+     *
+     * @param object the object to check.
+     * @return       true if the object is a scalar value.
+     */
+    static boolean isRaw(@Nullable Object object) {
+        return !(object instanceof SettingsNode) && !(object instanceof Map) && !(object instanceof Iterable);
+    }
+
+    /**
+     * Append a scalar value without creating any settings node.
+     *
+     * @param value the value to append.
+     */
+    void addValue(@Nullable Object value) {
+        checkMutable();
+        unshare();
+        if (size == 0 && type == OBJECT) {
+            if (value instanceof Integer) {
+                type = INT;
+                ints = new int[10];
+            } else if (value instanceof Long) {
+                type = LONG;
+                longs = new long[10];
+            } else if (value instanceof Double) {
+                type = DOUBLE;
+                doubles = new double[10];
+            }
+        }
+        switch (type) {
+            case INT:
+                if (value instanceof Integer) {
+                    if (size == ints.length) {
+                        ints = Arrays.copyOf(ints, grow(size));
+                        ensureNodes();
+                    }
+                    ints[size++] = (Integer) value;
+                    modCount++;
+                    return;
+                }
+                break;
+            case LONG:
+                if (value instanceof Long) {
+                    if (size == longs.length) {
+                        longs = Arrays.copyOf(longs, grow(size));
+                        ensureNodes();
+                    }
+                    longs[size++] = (Long) value;
+                    modCount++;
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (value instanceof Double) {
+                    if (size == doubles.length) {
+                        doubles = Arrays.copyOf(doubles, grow(size));
+                        ensureNodes();
+                    }
+                    doubles[size++] = (Double) value;
+                    modCount++;
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        insert(size, value);
+    }
+
+    /**
+     * Get the element at provided index as raw value, or settings node if it was already created.
+     *
+     * @param index the element index.
+     * @return      a raw value or settings node.
+     */
+    @Nullable
+    Object getValue(int index) {
+        Objects.checkIndex(index, size);
+        final SettingsNode[] nodes = (SettingsNode[]) NODES.getAcquire(this);
+        if (nodes != null) {
+            final Object node = NODE.getAcquire(nodes, index);
+            if (node != null) {
+                return node;
+            }
+        }
+        switch (type) {
+            case INT:
+                return ints[index];
+            case LONG:
+                return longs[index];
+            case DOUBLE:
+                return doubles[index];
+            default:
+                return ELEMENT.getAcquire(elements, index);
+        }
+    }
+
+    /**
+     * Get a view of this list where any element that was not accessed as node is a raw value.
+     *
+     * @return a list of raw values and settings nodes.
+     */
+    @NotNull
+    List<Object> values() {
+        return new Values();
+    }
+
+    /**
+     * Get the literal object of every element.
+     *
+     * @return a list of literal objects.
+     */
+    @NotNull
+    List<Object> toLiteralList() {
+        final List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Object value = getValue(i);
+            list.add(value instanceof SettingsNode ? ((SettingsNode) value).asLiteralObject() : value);
+        }
+        return list;
+    }
+
+    /**
+     * Set the list node that owns this list, any element node is also owned by the same list node.
+     *
+     * @param owner the list node.
+     */
+    void setOwner(@Nullable ListNode owner) {
+        this.owner = owner;
+        for (int i = 0; i < size; i++) {
+            adopt(getValue(i));
+        }
+    }
+
+    /**
+     * Get the element at provided index as settings node.<br>
+     * Any raw element is saved as node the first time it's returned, so the same node is
+     * returned on every call and any modification made on it is kept by this list.<br>
+     * Saving a raw element is not a list modification, and it's safe to do from concurrent readers.
+     * Frozen lists return frozen views of raw elements instead, without saving them.
+     *
+     * @param index the element index.
+     * @return      a settings node.
+     */
+    @Override
+    public SettingsNode get(int index) {
+        final Object value = getValue(index);
+        if (value instanceof SettingsNode) {
+            return (SettingsNode) value;
+        }
+        if (frozen) {
+            return ((NodeValue<?>) NodeKey.of(null, null, value)).freeze();
+        }
+        return save(index);
+    }
+
+    @NotNull
+    private synchronized SettingsNode save(int index) {
+        final Object value = getValue(index);
+        if (value instanceof SettingsNode) {
+            return (SettingsNode) value;
+        }
+        final SettingsNode node = NodeKey.of(null, null, value);
+        adopt(node);
+        store(index, node);
+        return node;
+    }
+
+    @NotNull
+    private SettingsNode detached(int index) {
+        final Object value = getValue(index);
+        return value instanceof SettingsNode ? (SettingsNode) value : NodeKey.of(null, null, value);
+    }
+
+    @Override
+    public SettingsNode set(int index, SettingsNode element) {
+        checkMutable();
+        final SettingsNode previous = detached(index);
+        release(previous);
+        store(index, element);
+        adopt(element);
+        return previous;
+    }
+
+    private void store(int index, @NotNull SettingsNode element) {
+        if (type == OBJECT) {
+            unshare();
+            ELEMENT.setRelease(elements, index, element);
+        } else {
+            SettingsNode[] nodes = this.nodes;
+            if (nodes == null) {
+                nodes = new SettingsNode[capacity()];
+                NODES.setRelease(this, nodes);
+            }
+            NODE.setRelease(nodes, index, element);
+        }
+    }
+
+    private void adopt(@Nullable Object element) {
+        if (element instanceof NodeKey) {
+            ((NodeKey<?>) element).setOwner(owner);
+        }
+    }
+
+    private void release(@Nullable Object element) {
+        if (element instanceof NodeKey && owner != null && ((NodeKey<?>) element).isOwner(owner)) {
+            ((NodeKey<?>) element).setOwner(null);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int index, SettingsNode element) {
+        Objects.checkIndex(index, size + 1);
+        insert(index, element);
+    }
+
+    @Override
+    public SettingsNode remove(int index) {
+        checkMutable();
+        final SettingsNode previous = detached(index);
+        release(previous);
+        inflate();
+        unshare();
+        final int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(elements, index + 1, elements, index, moved);
+        }
+        elements[--size] = null;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        for (int i = 0; i < size; i++) {
+            release(getValue(i));
+        }
+        type = OBJECT;
+        size = 0;
+        elements = EMPTY;
+        ints = null;
+        longs = null;
+        doubles = null;
+        nodes = null;
+        shared = false;
+        modCount++;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        for (int i = 0; i < size; i++) {
+            if (elementEquals(i, o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (elementEquals(i, o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    private boolean elementEquals(int index, @Nullable Object o) {
+        final Object value = getValue(index);
+        if (value instanceof SettingsNode) {
+            return value.equals(o);
+        }
+        // Same as node value equality
+        return o instanceof NodeValue && Objects.equals(value, ((NodeValue<?>) o).getValue());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof List)) return false;
+
+        final List<?> list = (List<?>) o;
+        if (list.size() != size) return false;
+        final Iterator<?> iterator = list.iterator();
+        for (int i = 0; i < size; i++) {
+            if (!iterator.hasNext() || !elementEquals(i, iterator.next())) {
+                return false;
+            }
+        }
+        return !iterator.hasNext();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            final Object value = getValue(i);
+            // Node value hash is the same as its value hash
+            hash = 31 * hash + (value == null ? 0 : value.hashCode());
+        }
+        return hash;
+    }
+
+    /**
+     * Copy the primitive values of this list if it's an unchanged list of integers.
+     *
+     * @return an array of integers, null if the list is not compact.
+     */
+    int @Nullable [] copyInts() {
+        return type == INT && nodes == null ? Arrays.copyOf(ints, size) : null;
+    }
+
+    /**
+     * Copy the primitive values of this list if it's an unchanged list of longs.
+     *
+     * @return an array of longs, null if the list is not compact.
+     */
+    long @Nullable [] copyLongs() {
+        return type == LONG && nodes == null ? Arrays.copyOf(longs, size) : null;
+    }
+
+    /**
+     * Copy the primitive values of this list if it's an unchanged list of doubles.
+     *
+     * @return an array of doubles, null if the list is not compact.
+     */
+    double @Nullable [] copyDoubles() {
+        return type == DOUBLE && nodes == null ? Arrays.copyOf(doubles, size) : null;
+    }
+
+    /**
+     * Check if every element of this list is a raw value.
+     *
+     * @return true if no element was accessed as node.
+     */
+    boolean isRaw() {
+        if (nodes != null) {
+            return false;
+        }
+        if (type == OBJECT) {
+            for (int i = 0; i < size; i++) {
+                if (elements[i] instanceof SettingsNode) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the hash code of raw values from this list.
+     *
+     * @return a hash code.
+     */
+    int rawHashCode() {
+        int hash = type;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + Objects.hashCode(getValue(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Compare the raw values of this list with other list.
+     *
+     * @param list the list to compare.
+     * @return     true if both lists have the same raw values with the same storage type.
+     */
+    boolean rawEquals(@NotNull NodeList list) {
+        if (type != list.type || size != list.size) {
+            return false;
+        }
+        switch (type) {
+            case INT:
+                return Arrays.equals(ints, 0, size, list.ints, 0, size);
+            case LONG:
+                return Arrays.equals(longs, 0, size, list.longs, 0, size);
+            case DOUBLE:
+                return Arrays.equals(doubles, 0, size, list.doubles, 0, size);
+            default:
+                return Arrays.equals(elements, 0, size, list.elements, 0, size);
+        }
+    }
+
+    /**
+     * Use the same storage arrays as the provided list, both lists must be raw and equal.<br>
+     * Any list will copy the arrays before its first modification.
+     *
+     * @param list the list to share the storage from.
+     */
+    void share(@NotNull NodeList list) {
+        this.type = list.type;
+        this.elements = list.elements;
+        this.ints = list.ints;
+        this.longs = list.longs;
+        this.doubles = list.doubles;
+        this.shared = true;
+        list.shared = true;
+    }
+
+    /**
+     * Make this list unmodifiable, any later modification will throw an exception.<br>
+     * Raw elements are kept as raw values, and they are returned as frozen views.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Cannot modify frozen list");
+        }
+    }
+
+    private void unshare() {
+        if (!shared) {
+            return;
+        }
+        switch (type) {
+            case INT:
+                ints = ints.clone();
+                break;
+            case LONG:
+                longs = longs.clone();
+                break;
+            case DOUBLE:
+                doubles = doubles.clone();
+                break;
+            default:
+                elements = elements.length == 0 ? elements : elements.clone();
+                break;
+        }
+        shared = false;
+    }
+
+    private void insert(int index, @Nullable Object value) {
+        checkMutable();
+        inflate();
+        unshare();
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, grow(size));
+        }
+        if (index < size) {
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+        }
+        elements[index] = value;
+        size++;
+        modCount++;
+        adopt(value);
+    }
+
+    private void inflate() {
+        if (type == OBJECT) {
+            return;
+        }
+        final Object[] elements = new Object[Math.max(capacity(), 10)];
+        for (int i = 0; i < size; i++) {
+            elements[i] = getValue(i);
+        }
+        this.type = OBJECT;
+        this.elements = elements;
+        this.ints = null;
+        this.longs = null;
+        this.doubles = null;
+        this.nodes = null;
+        this.shared = false;
+    }
+
+    private int capacity() {
+        switch (type) {
+            case INT:
+                return ints.length;
+            case LONG:
+                return longs.length;
+            case DOUBLE:
+                return doubles.length;
+            default:
+                return elements.length;
+        }
+    }
+
+    private void ensureNodes() {
+        if (nodes != null && nodes.length < capacity()) {
+            nodes = Arrays.copyOf(nodes, capacity());
+        }
+    }
+
+    private static int grow(int size) {
+        return Math.max(10, size + (size >> 1));
+    }
+
+    /**
+     * List view of raw values and settings nodes.
+     */
+    final class Values extends AbstractList<Object> implements RandomAccess {
+
+        @NotNull
+        NodeList getList() {
+            return NodeList.this;
+        }
+
+        @Override
+        public Object get(int index) {
+            return getValue(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package com.saicone.settings.node;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Insertion-ordered map used by default as {@link MapNode} value.<br>
+ * Entries are saved into parallel arrays along with cached key hashes, so small maps
+ * are just a linear scan over a few array slots, and larger maps use an open-addressing
+ * table of array positions instead of an entry object per key.<br>
+ * Removed entries leave an empty slot until the arrays need to grow, so any removal
+ * doesn't move other entries and iterators are able to remove entries.<br>
+ * A frozen map can also share the storage of a raw map, in that case every value is
+ * returned as a view created from its raw value.
+ *
+ * @author Rubenicos
+ *
+ * @param <V> the value type.
+ */
+final class NodeMap<V> extends AbstractMap<String, V> {
+
+    private static final Object[] EMPTY = new Object[0];
+    private static final int[] EMPTY_HASHES = new int[0];
+    private static final Object REMOVED = new Object();
+
+    // Maps up to this capacity don't use a hash table
+    private static final int LINEAR_CAPACITY = 8;
+
+    private Object[] keys = EMPTY;
+    private Object[] values = EMPTY;
+    private int[] hashes = EMPTY_HASHES;
+    // Open-addressing table of positions plus one, zero means empty
+    private int[] table;
+
+    private int size;
+    // Used slots, including removed entries
+    private int end;
+    private int modCount;
+    // True if the map cannot be modified
+    private boolean frozen;
+    // Shared raw storage and the function to create its value views
+    private NodeMap<?> storage;
+    private BiFunction<String, Object, V> view;
+
+    private transient Set<String> keySet;
+    private transient Collection<V> valueCollection;
+    private transient Set<Entry<String, V>> entrySet;
+
+    private static int hash(@Nullable Object key) {
+        final int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(@Nullable Object key) {
+        final int hash = hash(key);
+        if (table == null) {
+            for (int i = 0; i < end; i++) {
+                if (hashes[i] == hash && keys[i] != REMOVED && Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final int mask = table.length - 1;
+        int index = hash & mask;
+        int slot;
+        while ((slot = table[index]) != 0) {
+            final int pos = slot - 1;
+            if (hashes[pos] == hash && keys[pos] != REMOVED && Objects.equals(keys[pos], key)) {
+                return pos;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int pos) {
+        return view == null ? (V) values[pos] : view.apply((String) keys[pos], values[pos]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int pos = indexOf(key);
+        return pos < 0 ? null : valueAt(pos);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(String key, V value) {
+        checkMutable();
+        final int pos = indexOf(key);
+        if (pos >= 0) {
+            final V previous = (V) values[pos];
+            values[pos] = value;
+            return previous;
+        }
+        if (end == keys.length) {
+            resize();
+        }
+        final int hash = hash(key);
+        keys[end] = key;
+        values[end] = value;
+        hashes[end] = hash;
+        if (table != null) {
+            insert(hash, end);
+        }
+        end++;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        final int pos = indexOf(key);
+        return pos < 0 ? null : removeAt(pos);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int pos) {
+        checkMutable();
+        final V previous = (V) values[pos];
+        keys[pos] = REMOVED;
+        values[pos] = null;
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        checkMutable();
+        keys = EMPTY;
+        values = EMPTY;
+        hashes = EMPTY_HASHES;
+        table = null;
+        size = 0;
+        end = 0;
+        modCount++;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        final int expected = modCount;
+        for (int i = 0; i < end; i++) {
+            if (keys[i] != REMOVED) {
+                action.accept((String) keys[i], valueAt(i));
+            }
+        }
+        if (expected != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Make this map unmodifiable, any later modification will throw an exception.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * Check if this map is sharing the storage of a raw map.
+     *
+     * @return true if the values are views of raw values.
+     */
+    boolean isShared() {
+        return storage != null;
+    }
+
+    /**
+     * Get the hash code of the entries from this map, including their order.
+     *
+     * @return a hash code.
+     */
+    int rawHashCode() {
+        int hash = 1;
+        for (int i = 0; i < end; i++) {
+            if (keys[i] != REMOVED) {
+                hash = 31 * (31 * hash + keys[i].hashCode()) + Objects.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Compare the entries of this map with other map, including their order.
+     *
+     * @param map the map to compare.
+     * @return    true if both maps have the same keys and values in the same order.
+     */
+    boolean rawEquals(@NotNull NodeMap<?> map) {
+        if (size != map.size) {
+            return false;
+        }
+        int other = 0;
+        for (int i = 0; i < end; i++) {
+            if (keys[i] == REMOVED) {
+                continue;
+            }
+            while (map.keys[other] == REMOVED) {
+                other++;
+            }
+            if (!keys[i].equals(map.keys[other]) || !Objects.equals(values[i], map.values[other])) {
+                return false;
+            }
+            other++;
+        }
+        return true;
+    }
+
+    /**
+     * Use the same storage as the provided frozen map of raw values, this map must be frozen.<br>
+     * Any value from this map will be created by the provided function from its raw value.
+     *
+     * @param storage the raw map to share the storage from.
+     * @param view    the function to create value views.
+     */
+    void share(@NotNull NodeMap<?> storage, @NotNull BiFunction<String, Object, V> view) {
+        if (!frozen || !storage.frozen) {
+            throw new IllegalStateException("Cannot share the storage of a non-frozen map");
+        }
+        this.keys = storage.keys;
+        this.values = storage.values;
+        this.hashes = storage.hashes;
+        this.table = storage.table;
+        this.size = storage.size;
+        this.end = storage.end;
+        this.storage = storage;
+        this.view = view;
+        modCount++;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Cannot modify frozen map");
+        }
+    }
+
+    private void resize() {
+        final int capacity;
+        if (size < end) {
+            // Compact removed entries first
+            capacity = Math.max(grow(size), keys.length);
+        } else {
+            capacity = grow(keys.length);
+        }
+        final Object[] keys = new Object[capacity];
+        final Object[] values = new Object[capacity];
+        final int[] hashes = new int[capacity];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (this.keys[i] != REMOVED) {
+                keys[count] = this.keys[i];
+                values[count] = this.values[i];
+                hashes[count] = this.hashes[i];
+                count++;
+            }
+        }
+        this.keys = keys;
+        this.values = values;
+        this.hashes = hashes;
+        this.end = count;
+        if (capacity > LINEAR_CAPACITY) {
+            // Keep load factor below 0.5
+            this.table = new int[Integer.highestOneBit(capacity - 1) << 2];
+            for (int i = 0; i < count; i++) {
+                insert(hashes[i], i);
+            }
+        } else {
+            this.table = null;
+        }
+    }
+
+    private void insert(int hash, int pos) {
+        final int mask = table.length - 1;
+        int index = hash & mask;
+        while (table[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        table[index] = pos + 1;
+    }
+
+    private static int grow(int capacity) {
+        if (capacity < 4) {
+            return 4;
+        }
+        return capacity + (capacity >> 1);
+    }
+
+    @Override
+    public @NotNull Set<String> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<String> iterator() {
+                    return new PositionIterator<>() {
+                        @Override
+                        String element(int pos) {
+                            return (String) keys[pos];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    final int pos = indexOf(o);
+                    if (pos < 0) {
+                        return false;
+                    }
+                    removeAt(pos);
+                    return true;
+                }
+
+                @Override
+                public void clear() {
+                    NodeMap.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    @Override
+    public @NotNull Collection<V> values() {
+        if (valueCollection == null) {
+            valueCollection = new AbstractCollection<>() {
+                @Override
+                public @NotNull Iterator<V> iterator() {
+                    return new PositionIterator<>() {
+                        @Override
+                        V element(int pos) {
+                            return valueAt(pos);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public void clear() {
+                    NodeMap.this.clear();
+                }
+            };
+        }
+        return valueCollection;
+    }
+
+    @Override
+    public @NotNull Set<Entry<String, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public @NotNull Iterator<Entry<String, V>> iterator() {
+                    return entryIterator(null);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Map.Entry)) {
+                        return false;
+                    }
+                    final Entry<?, ?> entry = (Entry<?, ?>) o;
+                    final int pos = indexOf(entry.getKey());
+                    return pos >= 0 && Objects.equals(valueAt(pos), entry.getValue());
+                }
+
+                @Override
+                public void clear() {
+                    NodeMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /**
+     * Get an iterator over map entries, any entry value replacement is made by the given function
+     * instead of this map, so the map owner can handle entry edits without wrapping every entry.
+     *
+     * @param setter the function to replace the value of a key, null to replace it on this map.
+     * @return       an entry iterator.
+     */
+    @NotNull
+    Iterator<Entry<String, V>> entryIterator(@Nullable BiFunction<String, V, V> setter) {
+        return new PositionIterator<>() {
+            @Override
+            Entry<String, V> element(int pos) {
+                return new PositionEntry(pos, setter);
+            }
+        };
+    }
+
+    private abstract class PositionIterator<E> implements Iterator<E> {
+
+        private int next;
+        private int last = -1;
+        private int expected = modCount;
+
+        PositionIterator() {
+            skip();
+        }
+
+        private void skip() {
+            while (next < end && keys[next] == REMOVED) {
+                next++;
+            }
+        }
+
+        abstract E element(int pos);
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public E next() {
+            if (expected != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            skip();
+            return element(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expected != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            last = -1;
+            expected = modCount;
+        }
+    }
+
+    private final class PositionEntry implements Entry<String, V> {
+
+        private final int pos;
+        private final String key;
+        private final BiFunction<String, V, V> setter;
+
+        PositionEntry(int pos, @Nullable BiFunction<String, V, V> setter) {
+            this.pos = pos;
+            this.key = (String) keys[pos];
+            this.setter = setter;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            // Entry may be detached by a resize
+            return pos < end && keys[pos] == key ? valueAt(pos) : get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (setter != null) {
+                return setter.apply(key, value);
+            }
+            checkMutable();
+            if (pos < end && keys[pos] == key) {
+                @SuppressWarnings("unchecked")
+                final V previous = (V) values[pos];
+                values[pos] = value;
+                return previous;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) return false;
+            final Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.util.Strings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class that represents an immutable node key path.<br>
+ * Any path is parsed only once, so it can be reused to get nodes from a map node
+ * without splitting the path or joining keys on every lookup.
+ *
+ * @author Rubenicos
+ */
+public final class NodePath implements Iterable<String> {
+
+    private static final int MAX_CACHE_SIZE = 4096;
+    private static final Map<String, NodePath> CACHE = new ConcurrentHashMap<>();
+
+    private final String[] keys;
+    private final String id;
+    private final int hash;
+
+    // Lazily computed lower-case path and ignore-case id, safe to share since every path field is final
+    private transient NodePath lowerPath;
+    private transient String ignoreCaseId;
+
+    /**
+     * Get a node path by splitting the provided path by dots.<br>
+     * Any literal dot declaration such as {@code \.} will be ignored, the same as {@link Strings#split(String, char)}.<br>
+     * Parsed paths are interned, so the same instance is returned for every equal path.
+     *
+     * @param path the path to parse.
+     * @return     a node path instance.
+     */
+    @NotNull
+    public static NodePath parse(@NotNull String path) {
+        NodePath nodePath = CACHE.get(path);
+        if (nodePath == null) {
+            nodePath = new NodePath(Strings.split(path, '.'));
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                final NodePath previous = CACHE.putIfAbsent(path, nodePath);
+                if (previous != null) {
+                    return previous;
+                }
+            }
+        }
+        return nodePath;
+    }
+
+    /**
+     * Create a node path with the provided keys.<br>
+     * This method doesn't intern the created path, so it's suggested to save it as constant.
+     *
+     * @param keys the path keys.
+     * @return     a node path instance.
+     */
+    @NotNull
+    public static NodePath of(@NotNull String... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("Cannot create a node path without keys");
+        }
+        return new NodePath(keys.clone());
+    }
+
+    private NodePath(@NotNull String[] keys) {
+        this.keys = keys;
+        this.id = keys.length == 1 ? keys[0] : String.join(".", keys);
+        this.hash = Arrays.hashCode(keys);
+    }
+
+    /**
+     * Get the number of keys in this path.
+     *
+     * @return a path size.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Get the key at the provided index.
+     *
+     * @param index the key index.
+     * @return      a node key.
+     */
+    @NotNull
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Get the lower-case form of the key at the provided index.
+     *
+     * @see Strings#lowerCase(String)
+     *
+     * @param index the key index.
+     * @return      a lower-case node key.
+     */
+    @NotNull
+    public String getLowerKey(int index) {
+        return lowerCase().keys[index];
+    }
+
+    /**
+     * Get the lower-case form of this path.
+     *
+     * @see Strings#lowerCase(String)
+     *
+     * @return a node path with lower-case keys, or this path itself if every key is already lower-case.
+     */
+    @NotNull
+    public NodePath lowerCase() {
+        NodePath lowerPath = this.lowerPath;
+        if (lowerPath == null) {
+            final String[] lowerKeys = new String[keys.length];
+            boolean lower = true;
+            for (int i = 0; i < keys.length; i++) {
+                lowerKeys[i] = Strings.lowerCase(keys[i]);
+                lower &= lowerKeys[i].equals(keys[i]);
+            }
+            lowerPath = lower ? this : new NodePath(lowerKeys);
+            this.lowerPath = lowerPath;
+        }
+        return lowerPath;
+    }
+
+    /**
+     * Get the last key of this path.
+     *
+     * @return a node key.
+     */
+    @NotNull
+    public String getLast() {
+        return keys[keys.length - 1];
+    }
+
+    /**
+     * Create a new node path with the provided key appended at the end of this path.
+     *
+     * @param key the key to append.
+     * @return    a node path instance.
+     */
+    @NotNull
+    public NodePath child(@NotNull String key) {
+        final String[] keys = Arrays.copyOf(this.keys, this.keys.length + 1);
+        keys[this.keys.length] = key;
+        return new NodePath(keys);
+    }
+
+    /**
+     * Get a copy of the keys in this path.
+     *
+     * @return a key array.
+     */
+    @NotNull
+    public String[] getKeys() {
+        return keys.clone();
+    }
+
+    @NotNull
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < keys.length;
+            }
+
+            @Override
+            public String next() {
+                if (index >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                return keys[index++];
+            }
+        };
+    }
+
+    /**
+     * Get the keys of this path joined by dots.<br>
+     * This is the same id used by {@link com.saicone.settings.Settings} to memorize node paths.
+     *
+     * @return a path id.
+     */
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * Get the id used by {@link com.saicone.settings.Settings} to memorize this path when
+     * it's looked up ignoring case considerations.<br>
+     * The id is computed once and reused on every call.
+     *
+     * @return a path id with ignore-case prefix.
+     */
+    @NotNull
+    public String toIgnoreCaseString() {
+        String ignoreCaseId = this.ignoreCaseId;
+        if (ignoreCaseId == null) {
+            ignoreCaseId = "$IgnoreCase." + id;
+            this.ignoreCaseId = ignoreCaseId;
+        }
+        return ignoreCaseId;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (!(object instanceof NodePath)) return false;
+
+        final NodePath nodePath = (NodePath) object;
+        return hash == nodePath.hash && Arrays.equals(keys, nodePath.keys);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
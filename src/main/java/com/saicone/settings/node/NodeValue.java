@@ -1,20 +1,25 @@
 package com.saicone.settings.node;
 
 import com.saicone.settings.SettingsNode;
+import com.saicone.settings.type.Conversions;
 import com.saicone.types.TypeParser;
 import com.saicone.types.Types;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Abstract class that represents a node multi-layer value along with comments.<br>
- * Any type transformation will be cached.
+ * Any type transformation will be cached, keeping up to 4 different types for the current value.<br>
+ * Comments are saved as immutable lines that are only allocated when the node has any comment.
  *
  * @author Rubenicos
  *
@@ -25,12 +30,31 @@ public abstract class NodeValue<V> implements SettingsNode {
     private Object faceValue;
     private Object sourceValue;
 
-    private List<String> topComment;
-    private List<String> sideComment;
+    // Only set when the node has any comment
+    private Comments comments;
 
     // Parsed value cache
-    private transient TypeParser<?> typeParser;
-    private transient Object parsedValue;
+    private transient volatile ParsedValues parsedValues;
+
+    // Value fields access with acquire/release semantics, used to publish values between threads
+    private static final VarHandle FACE_VALUE;
+    private static final VarHandle SOURCE_VALUE;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            FACE_VALUE = lookup.findVarHandle(NodeValue.class, "faceValue", Object.class);
+            SOURCE_VALUE = lookup.findVarHandle(NodeValue.class, "sourceValue", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Highest stamp bit, set when the node is frozen
+    private static final int FROZEN = Integer.MIN_VALUE;
+
+    // Modification stamp
+    private transient int stamp;
 
     /**
      * Create a node value with the given object.
@@ -48,10 +72,21 @@ public abstract class NodeValue<V> implements SettingsNode {
         } else if (object instanceof Iterable) {
             return new ListNode().merge((Iterable<?>) object);
         } else {
-            return new ObjectNode(object);
+            return NodeKey.of(null, null, object);
         }
     }
 
+    /**
+     * Get the shared empty node instance.<br>
+     * This node doesn't have any key or value, and any edit operation on it will throw an exception.
+     *
+     * @return an immutable empty node.
+     */
+    @NotNull
+    public static SettingsNode empty() {
+        return EmptyNode.INSTANCE;
+    }
+
     /**
      * Constructs a node value with the given object.
      *
@@ -63,18 +98,19 @@ public abstract class NodeValue<V> implements SettingsNode {
 
     @Override
     public boolean hasTopComment() {
-        return this.topComment != null && !this.topComment.isEmpty();
+        return this.comments != null && this.comments.top != null && !this.comments.top.isEmpty();
     }
 
     @Override
     public boolean hasSideComment() {
-        return this.sideComment != null && !this.sideComment.isEmpty();
+        return this.comments != null && this.comments.side != null && !this.comments.side.isEmpty();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public V getValue() {
-        return (V) (faceValue != null ? faceValue : sourceValue);
+        final Object faceValue = FACE_VALUE.getAcquire(this);
+        return (V) (faceValue != null ? faceValue : getSourceValue());
     }
 
     /**
@@ -84,79 +120,224 @@ public abstract class NodeValue<V> implements SettingsNode {
      */
     @Nullable
     public Object getFaceValue() {
-        return faceValue;
+        return FACE_VALUE.getAcquire(this);
     }
 
     @Override
     public @Nullable Object getSourceValue() {
-        return sourceValue;
+        return SOURCE_VALUE.getAcquire(this);
+    }
+
+    @Override
+    public int getStamp() {
+        return stamp;
     }
 
     @Override
     public @Nullable List<String> getTopComment() {
-        return topComment;
+        return comments == null ? null : comments.top;
     }
 
     @Override
     public @Nullable List<String> getSideComment() {
-        return sideComment;
+        return comments == null ? null : comments.side;
     }
 
     @NotNull
     @Override
     public SettingsNode setValue(@NotNull Object value) {
-        if (this.sourceValue == null) {
+        checkMutable();
+        if (getSourceValue() == null) {
             this.sourceValue = value;
         } else {
             this.faceValue = value;
         }
+        modified();
         return this;
     }
 
     @NotNull
     @Override
     public SettingsNode setSourceValue(@Nullable Object value) {
+        checkMutable();
         this.sourceValue = value;
+        modified();
+        return this;
+    }
+
+    /**
+     * Replace the source value with an equal instance that is shared with other nodes.<br>
+     * This is not a node modification, so the node stamp is not changed.
+     *
+     * @param value the shared value.
+     */
+    void shareSourceValue(@NotNull Object value) {
+        this.sourceValue = value;
+    }
+
+    /**
+     * Replace the comments with equal instances that are shared with other nodes.<br>
+     * This is not a node modification, so it can be done on frozen nodes too.
+     *
+     * @param topComment  the shared top comment.
+     * @param sideComment the shared side comment.
+     */
+    void shareComments(@Nullable List<String> topComment, @Nullable List<String> sideComment) {
+        this.comments = Comments.of(topComment, sideComment);
+    }
+
+    /**
+     * Replace the current node value with a completely built value using a single release write.<br>
+     * Any thread reading this node will get the previous value or the new one, but never a partially built value.
+     *
+     * @param value the value to publish.
+     */
+    protected void publish(@NotNull Object value) {
+        checkMutable();
+        // Make the value content visible before the value itself, readers use acquire reads
+        if (this.faceValue != null) {
+            FACE_VALUE.setRelease(this, value);
+        } else {
+            SOURCE_VALUE.setRelease(this, value);
+        }
+        modified();
+    }
+
+    /**
+     * Mark the current node as modified by increasing its stamp along with every parent node stamp.
+     */
+    protected void modified() {
+        checkMutable();
+        stamp = nextStamp(stamp);
+        parsedValues = null;
+        notifyOwner();
+    }
+
+    /**
+     * Notify the node that contains this node about a modification.<br>
+     * By default, the parent node is marked as modified.
+     */
+    void notifyOwner() {
+        final MapNode parent = getParent();
+        if (parent != null) {
+            parent.modified();
+        }
+    }
+
+    /**
+     * Increase the stamp of the current node without notifying parent nodes.<br>
+     * This method is executed when the node is detached from its parent, so any
+     * external reference can detect that the node is no longer part of the same tree.
+     */
+    protected void invalidate() {
+        stamp = nextStamp(stamp);
+    }
+
+    private static int nextStamp(int stamp) {
+        // Frozen bit is kept
+        return ((stamp + 1) & ~FROZEN) | (stamp & FROZEN);
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return (stamp & FROZEN) != 0;
+    }
+
+    /**
+     * Make the current node immutable, so any edit operation on it will throw an exception.<br>
+     * Map and list nodes also freeze every child node.
+     *
+     * @return the current node.
+     */
+    @NotNull
+    public SettingsNode freeze() {
+        stamp |= FROZEN;
         return this;
     }
 
+    /**
+     * Check if the current node can be edited.
+     *
+     * @throws IllegalStateException if the node is frozen.
+     */
+    protected void checkMutable() {
+        if (isFrozen()) {
+            throw new IllegalStateException("Cannot edit frozen node");
+        }
+    }
+
+    /**
+     * Replace the current value without any modification check.<br>
+     * This method is only used to replace the value with an equivalent one.
+     *
+     * @param value the equivalent value.
+     */
+    void replaceValue(@NotNull Object value) {
+        if (this.faceValue != null) {
+            this.faceValue = value;
+        } else {
+            this.sourceValue = value;
+        }
+    }
+
     @NotNull
     @Override
     public SettingsNode setTopComment(@Nullable List<String> topComment) {
-        this.topComment = topComment;
+        checkMutable();
+        this.comments = Comments.of(CommentLines.of(topComment), getSideComment());
         return this;
     }
 
     @NotNull
     @Override
     public SettingsNode setSideComment(@Nullable List<String> sideComment) {
-        this.sideComment = sideComment;
+        checkMutable();
+        this.comments = Comments.of(getTopComment(), CommentLines.of(sideComment));
         return this;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public <E> @Nullable E as(@NotNull Class<E> type, @Nullable E def) {
-        if (type.isInstance(this.parsedValue)) {
-            return (E) this.parsedValue;
+    public @NotNull SettingsNode edit(@NotNull Function<SettingsNode, SettingsNode> function) {
+        checkMutable();
+        return function.apply(this);
+    }
+
+    @Override
+    public @NotNull SettingsNode mergeComment(@NotNull SettingsNode node) {
+        // Comment lines are immutable, so they are shared instead of copied
+        if (getTopComment() == null && node.getTopComment() != null) {
+            setTopComment(node.getTopComment());
+        }
+        if (getSideComment() == null && node.getSideComment() != null) {
+            setSideComment(node.getSideComment());
         }
-        final E parsedValue = Types.parse(type, getValue(), def);
-        if (parsedValue != null) {
-            this.parsedValue = parsedValue;
+        return this;
+    }
+
+    @Override
+    public <E> @Nullable E as(@NotNull Class<E> type, @Nullable E def) {
+        final Object value = getValue();
+        E parsedValue = getParsed(value, type);
+        if (parsedValue == null) {
+            parsedValue = Conversions.convert(parsable(value), type);
+            if (parsedValue == null) {
+                return def;
+            }
+            putParsed(value, type, parsedValue);
         }
         return parsedValue;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <E> @Nullable E as(@NotNull TypeParser<E> parser, @Nullable E def) {
-        if (parser.equals(this.typeParser)) {
-            return (E) this.parsedValue;
-        }
-        final E parsedValue = parser.parse(getValue(), def);
-        if (parsedValue != null) {
-            this.typeParser = parser;
-            this.parsedValue = parsedValue;
+        final Object value = getValue();
+        E parsedValue = getParsed(value, parser);
+        if (parsedValue == null) {
+            parsedValue = parser.parse(parsable(value), null);
+            if (parsedValue == null) {
+                return def;
+            }
+            putParsed(value, parser, parsedValue);
         }
         return parsedValue;
     }
@@ -167,39 +348,97 @@ public abstract class NodeValue<V> implements SettingsNode {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <E, C extends Collection<E>> @NotNull C asCollection(@NotNull TypeParser<E> parser, @NotNull C collection) {
-        if (parser.equals(this.typeParser) && collection.getClass().isInstance(this.parsedValue)) {
-            return (C) this.parsedValue;
+        final Object value = getValue();
+        final CollectionKey key = new CollectionKey(parser, collection.getClass());
+        C parsedValue = getParsed(value, key);
+        if (parsedValue == null) {
+            parsedValue = parser.collection(collection.getClass(), capacity -> collection).parse(parsable(value));
+            putParsed(value, key, parsedValue);
         }
-        final C parsedValue = parser.collection(collection.getClass(), capacity -> collection).parse(getValue());
-        this.typeParser = parser;
-        this.parsedValue = parsedValue;
         return parsedValue;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <E extends Enum<E>> @Nullable E asEnum(@NotNull Class<E> type) {
-        if (type.isInstance(this.parsedValue)) {
-            return (E) this.parsedValue;
+        final Object value = getValue();
+        E parsedValue = getParsed(value, type);
+        if (parsedValue == null) {
+            parsedValue = Conversions.toEnum(type, value);
+            if (parsedValue == null) {
+                parsedValue = SettingsNode.super.asEnum(type);
+            }
+            putParsed(value, type, parsedValue);
         }
-        final E parsedValue = SettingsNode.super.asEnum(type);
-        this.parsedValue = parsedValue;
         return parsedValue;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <E extends Enum<E>> @Nullable E asEnum(@NotNull Class<E> type, @NotNull E[] values) {
-        if (type.isInstance(this.parsedValue)) {
-            return (E) this.parsedValue;
+        final Object value = getValue();
+        E parsedValue = getParsed(value, type);
+        if (parsedValue == null) {
+            if (values.length == Conversions.enumSize(type)) {
+                parsedValue = Conversions.toEnum(type, value);
+            }
+            if (parsedValue == null) {
+                parsedValue = SettingsNode.super.asEnum(type, values);
+            }
+            putParsed(value, type, parsedValue);
         }
-        final E parsedValue = SettingsNode.super.asEnum(type, values);
-        this.parsedValue = parsedValue;
         return parsedValue;
     }
 
+    /**
+     * Get the object that will be used to convert the provided node value into other types.
+     *
+     * @param value the node value.
+     * @return      an object to parse.
+     */
+    @Nullable
+    protected Object parsable(@Nullable Object value) {
+        return value;
+    }
+
+    /**
+     * Get a cached parsed value.
+     *
+     * @param value the node value that was used to parse.
+     * @param key   the parser, type or collection key.
+     * @return      a cached parsed value, null otherwise.
+     * @param <E>   the parsed value type.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private <E> E getParsed(@Nullable Object value, @NotNull Object key) {
+        final ParsedValues parsedValues = this.parsedValues;
+        if (parsedValues == null || !parsedValues.isFor(value)) {
+            return null;
+        }
+        return (E) parsedValues.get(key);
+    }
+
+    /**
+     * Save a parsed value into cache.<br>
+     * The cache is never edited, a new copy is published instead, so any concurrent
+     * reader always see a complete set of parsed values for the same node value.
+     *
+     * @param value       the node value that was used to parse.
+     * @param key         the parser, type or collection key.
+     * @param parsedValue the parsed value.
+     */
+    private void putParsed(@Nullable Object value, @NotNull Object key, @Nullable Object parsedValue) {
+        if (parsedValue == null) {
+            return;
+        }
+        final ParsedValues parsedValues = this.parsedValues;
+        if (parsedValues == null || !parsedValues.isFor(value)) {
+            this.parsedValues = new ParsedValues(value, new Object[] { key }, new Object[] { parsedValue });
+        } else {
+            this.parsedValues = parsedValues.with(key, parsedValue);
+        }
+    }
+
     @Override
     public String toString() {
         return Types.STRING.parse(getValue(), "null");
@@ -219,4 +458,112 @@ public abstract class NodeValue<V> implements SettingsNode {
     public int hashCode() {
         return getValue() != null ? getValue().hashCode() : 0;
     }
-}
\ No newline at end of file
+
+    private static final class ParsedValues {
+
+        private static final int MAX_SIZE = 4;
+
+        private final Object value;
+        private final Object[] keys;
+        private final Object[] parsedValues;
+
+        ParsedValues(@Nullable Object value, @NotNull Object[] keys, @NotNull Object[] parsedValues) {
+            this.value = value;
+            this.keys = keys;
+            this.parsedValues = parsedValues;
+        }
+
+        boolean isFor(@Nullable Object value) {
+            // Primitive values may be boxed on every read
+            return this.value == value || (value instanceof Number || value instanceof Boolean) && value.equals(this.value);
+        }
+
+        @Nullable
+        Object get(@NotNull Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return parsedValues[i];
+                }
+            }
+            return null;
+        }
+
+        @NotNull
+        ParsedValues with(@NotNull Object key, @NotNull Object parsedValue) {
+            int index = -1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    index = i;
+                    break;
+                }
+            }
+            final Object[] keys;
+            final Object[] parsedValues;
+            if (index >= 0) {
+                keys = this.keys;
+                parsedValues = this.parsedValues.clone();
+            } else if (this.keys.length < MAX_SIZE) {
+                // Append
+                index = this.keys.length;
+                keys = new Object[index + 1];
+                parsedValues = new Object[index + 1];
+                System.arraycopy(this.keys, 0, keys, 0, index);
+                System.arraycopy(this.parsedValues, 0, parsedValues, 0, index);
+            } else {
+                // Drop the oldest entry
+                index = MAX_SIZE - 1;
+                keys = new Object[MAX_SIZE];
+                parsedValues = new Object[MAX_SIZE];
+                System.arraycopy(this.keys, 1, keys, 0, index);
+                System.arraycopy(this.parsedValues, 1, parsedValues, 0, index);
+            }
+            keys[index] = key;
+            parsedValues[index] = parsedValue;
+            return new ParsedValues(value, keys, parsedValues);
+        }
+    }
+
+    private static final class CollectionKey {
+
+        private final TypeParser<?> parser;
+        private final Class<?> type;
+
+        CollectionKey(@NotNull TypeParser<?> parser, @NotNull Class<?> type) {
+            this.parser = parser;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) return true;
+            if (!(object instanceof CollectionKey)) return false;
+
+            CollectionKey that = (CollectionKey) object;
+            return parser.equals(that.parser) && type == that.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * parser.hashCode() + type.hashCode();
+        }
+    }
+
+    private static final class Comments {
+
+        private final List<String> top;
+        private final List<String> side;
+
+        @Nullable
+        static Comments of(@Nullable List<String> top, @Nullable List<String> side) {
+            if (top == null && side == null) {
+                return null;
+            }
+            return new Comments(top, side);
+        }
+
+        private Comments(@Nullable List<String> top, @Nullable List<String> side) {
+            this.top = top;
+            this.side = side;
+        }
+    }
+}
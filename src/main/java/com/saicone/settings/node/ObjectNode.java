@@ -59,6 +59,7 @@ public class ObjectNode extends NodeKey<Object> implements AnyIterable<Object> {
 
     @Override
     public @NotNull SettingsNode setValue(@NotNull Object value) {
+        checkMutable();
         final SettingsNode node;
         if (value instanceof Map) {
             node = new MapNode(getParent(), getKey()).merge(this).setValue(value);
@@ -0,0 +1,92 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.SettingsNode;
+import com.saicone.types.TypeParser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Abstract class to handle primitive values as settings node.<br>
+ * The value is stored as primitive field, and the source value slot only holds a shared marker,
+ * so the node doesn't keep any box and the value is only boxed when it's required as object.
+ *
+ * @author Rubenicos
+ */
+public abstract class PrimitiveNode extends ObjectNode {
+
+    // Source value marker for nodes that hold their value as primitive field
+    private static final Object PRIMITIVE = new Object();
+
+    /**
+     * Constructs a primitive node with the given parameters.<br>
+     * The primitive value must be saved by the subclass constructor.
+     *
+     * @param parent the parent node.
+     * @param key    the node key.
+     */
+    protected PrimitiveNode(@Nullable MapNode parent, @Nullable String key) {
+        super(parent, key, PRIMITIVE);
+    }
+
+    /**
+     * Check if the current node value is the primitive one.
+     *
+     * @return true if the node value is not a face value or a source value with different type.
+     */
+    public boolean isPrimitive() {
+        return getFaceValue() == null && super.getSourceValue() == PRIMITIVE;
+    }
+
+    /**
+     * Get the parser that represents the primitive type.
+     *
+     * @return a type parser.
+     */
+    @NotNull
+    protected abstract TypeParser<?> getParser();
+
+    /**
+     * Get the primitive value as object.
+     *
+     * @return a boxed primitive value.
+     */
+    @NotNull
+    protected abstract Object box();
+
+    /**
+     * Save the provided value as primitive value if it has the same type.
+     *
+     * @param value the value to save.
+     * @return      true if the value was saved as primitive.
+     */
+    protected abstract boolean unbox(@Nullable Object value);
+
+    @Override
+    public @Nullable Object getSourceValue() {
+        final Object value = super.getSourceValue();
+        return value == PRIMITIVE ? box() : value;
+    }
+
+    @Override
+    public @NotNull SettingsNode setValue(@NotNull Object value) {
+        if (getSourceValue() == null) {
+            return setSourceValue(value);
+        }
+        return super.setValue(value);
+    }
+
+    @Override
+    public @NotNull SettingsNode setSourceValue(@Nullable Object value) {
+        checkMutable();
+        return super.setSourceValue(unbox(value) ? PRIMITIVE : value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> @Nullable E as(@NotNull TypeParser<E> parser, @Nullable E def) {
+        if (parser == getParser() && isPrimitive()) {
+            return (E) box();
+        }
+        return super.as(parser, def);
+    }
+}
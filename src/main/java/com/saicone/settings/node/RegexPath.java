@@ -0,0 +1,213 @@
+package com.saicone.settings.node;
+
+import org.intellij.lang.annotations.Language;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Class that represents an immutable and compiled regex key path.<br>
+ * Every regex expression is compiled only once and shared across paths, so the same path
+ * can be reused to match node keys without compiling any pattern on every lookup.<br>
+ * Any expression without special characters is treated as literal key, and any other expression
+ * that starts with literal characters is only evaluated against keys with the same prefix.
+ *
+ * @author Rubenicos
+ */
+public final class RegexPath {
+
+    private static final int MAX_CACHE_SIZE = 1024;
+    private static final Map<String, Segment> CACHE = new ConcurrentHashMap<>();
+
+    private final Segment[] segments;
+    private final String id;
+
+    /**
+     * Get a regex path with the provided expressions, each expression represents a path key.
+     *
+     * @param regexPath the expressions to be compiled.
+     * @return          a regex path instance.
+     */
+    @NotNull
+    public static RegexPath of(@NotNull @Language("RegExp") String... regexPath) {
+        if (regexPath.length == 0) {
+            throw new IllegalArgumentException("Cannot create a regex path without expressions");
+        }
+        final Segment[] segments = new Segment[regexPath.length];
+        for (int i = 0; i < regexPath.length; i++) {
+            segments[i] = segment(regexPath[i]);
+        }
+        return new RegexPath(segments, regexPath.length == 1 ? regexPath[0] : String.join(".", regexPath));
+    }
+
+    /**
+     * Get a compiled pattern from the provided regex expression.<br>
+     * Compiled patterns are cached, so the same instance is returned for every equal expression.
+     *
+     * @param regex the expression to be compiled.
+     * @return      a compiled pattern.
+     */
+    @NotNull
+    public static Pattern compile(@NotNull @Language("RegExp") String regex) {
+        return segment(regex).getPattern();
+    }
+
+    @NotNull
+    private static Segment segment(@NotNull String regex) {
+        Segment segment = CACHE.get(regex);
+        if (segment == null) {
+            segment = new Segment(regex);
+            if (CACHE.size() < MAX_CACHE_SIZE) {
+                final Segment previous = CACHE.putIfAbsent(regex, segment);
+                if (previous != null) {
+                    return previous;
+                }
+            }
+        }
+        return segment;
+    }
+
+    private RegexPath(@NotNull Segment[] segments, @NotNull String id) {
+        this.segments = segments;
+        this.id = id;
+    }
+
+    /**
+     * Get the number of expressions in this path.
+     *
+     * @return a path size.
+     */
+    public int size() {
+        return segments.length;
+    }
+
+    /**
+     * Get the regex expression at the provided index.
+     *
+     * @param index the expression index.
+     * @return      a regex expression.
+     */
+    @NotNull
+    public String getRegex(int index) {
+        return segments[index].regex;
+    }
+
+    /**
+     * Get the literal key represented by the expression at the provided index.
+     *
+     * @param index the expression index.
+     * @return      a node key if the expression doesn't have any special character, null otherwise.
+     */
+    @Nullable
+    public String getLiteral(int index) {
+        return segments[index].literal;
+    }
+
+    /**
+     * Get the compiled pattern at the provided index.
+     *
+     * @param index the expression index.
+     * @return      a compiled pattern.
+     */
+    @NotNull
+    public Pattern getPattern(int index) {
+        return segments[index].getPattern();
+    }
+
+    /**
+     * Check if the provided key matches with the expression at the provided index.
+     *
+     * @param index the expression index.
+     * @param key   the key to match.
+     * @return      true if the key matches with the expression.
+     */
+    public boolean matches(int index, @NotNull String key) {
+        return segments[index].matches(key);
+    }
+
+    /**
+     * Check if the provided key path matches with this regex path.
+     *
+     * @param path the key path to match.
+     * @return     true if every key matches with the expression at the same index.
+     */
+    public boolean matches(@NotNull String... path) {
+        if (path.length != segments.length) {
+            return false;
+        }
+        for (int i = 0; i < path.length; i++) {
+            if (!segments[i].matches(path[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the expressions of this path joined by dots.<br>
+     * This is the same id used by {@link com.saicone.settings.Settings} to memorize regex paths.
+     *
+     * @return a path id.
+     */
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    private static final class Segment {
+
+        private final String regex;
+        private final String literal;
+        private final String prefix;
+        private volatile Pattern pattern;
+
+        Segment(@NotNull String regex) {
+            this.regex = regex;
+            final StringBuilder builder = new StringBuilder(regex.length());
+            boolean literal = true;
+            for (int i = 0; i < regex.length(); i++) {
+                final char c = regex.charAt(i);
+                if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    builder.append(regex.charAt(++i));
+                } else if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                    // The last char is optional when it's followed by a quantifier
+                    if ((c == '?' || c == '*' || c == '{') && builder.length() > 0) {
+                        builder.setLength(builder.length() - 1);
+                    }
+                    literal = false;
+                    break;
+                } else {
+                    builder.append(c);
+                }
+            }
+            if (literal) {
+                this.literal = builder.toString();
+                this.prefix = this.literal;
+            } else {
+                this.literal = null;
+                // Alternation may discard the prefix
+                this.prefix = regex.indexOf('|') >= 0 ? "" : builder.toString();
+            }
+        }
+
+        @NotNull
+        Pattern getPattern() {
+            Pattern pattern = this.pattern;
+            if (pattern == null) {
+                pattern = Pattern.compile(regex);
+                this.pattern = pattern;
+            }
+            return pattern;
+        }
+
+        boolean matches(@NotNull String key) {
+            if (literal != null) {
+                return literal.equals(key);
+            }
+            return key.startsWith(prefix) && getPattern().matcher(key).matches();
+        }
+    }
+}
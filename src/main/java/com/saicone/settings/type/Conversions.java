@@ -0,0 +1,200 @@
+package com.saicone.settings.type;
+
+import com.saicone.types.TypeParser;
+import com.saicone.types.Types;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Utility class to convert values into other types using cached conversion plans.<br>
+ * A conversion plan is resolved once per source value class and target type, so any
+ * repeated conversion doesn't need to find the type parser again, and common conversions
+ * like number to number or name to enum are made directly without any type dispatch.<br>
+ * Enum conversions use name lookup maps per enum class instead of scanning enum constants.
+ *
+ * @author Rubenicos
+ */
+public class Conversions {
+
+    private static final ClassValue<Plan> PLANS = new ClassValue<>() {
+        @Override
+        protected Plan computeValue(@NotNull Class<?> type) {
+            return new Plan(type);
+        }
+    };
+
+    private static final ClassValue<EnumLookup> ENUMS = new ClassValue<>() {
+        @Override
+        protected EnumLookup computeValue(@NotNull Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    Conversions() {
+    }
+
+    /**
+     * Get the type parser that will be used to convert values from source type into target type.
+     *
+     * @param source the source value class.
+     * @param target the target type.
+     * @return       a type parser.
+     * @param <E>    the target type.
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <E> TypeParser<E> parser(@NotNull Class<?> source, @NotNull Class<E> target) {
+        return (TypeParser<E>) PLANS.get(target).get(source);
+    }
+
+    /**
+     * Convert the provided value into target type.
+     *
+     * @param value  the value to convert.
+     * @param target the target type.
+     * @return       a converted value, null if the value cannot be converted.
+     * @param <E>    the target type.
+     */
+    @Nullable
+    public static <E> E convert(@Nullable Object value, @NotNull Class<E> target) {
+        if (value == null) {
+            return Types.parse(target, null, null);
+        }
+        return parser(value.getClass(), target).parse(value, null);
+    }
+
+    /**
+     * Convert the provided value into enum type using its name.<br>
+     * The name is matched exactly first, and then ignoring case considerations.
+     *
+     * @param type  the enum class.
+     * @param value the value to convert.
+     * @return      an enum constant, null if the value is not an enum name.
+     * @param <E>   the enum type.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> E toEnum(@NotNull Class<E> type, @Nullable Object value) {
+        if (type.isInstance(value)) {
+            return (E) value;
+        }
+        if (!(value instanceof String)) {
+            return null;
+        }
+        return (E) ENUMS.get(type).get((String) value);
+    }
+
+    /**
+     * Get the number of constants that can be found by name on the provided enum type.
+     *
+     * @param type the enum class.
+     * @return     a constants count.
+     */
+    public static int enumSize(@NotNull Class<? extends Enum<?>> type) {
+        return ENUMS.get(type).size;
+    }
+
+    private static final class Plan {
+
+        private static final TypeParser<Object> IDENTITY = object -> object;
+
+        private final Class<?> target;
+        private final TypeParser<?> parser;
+        // Only classes from bootstrap loader are saved, so no other class loader is referenced
+        private final Map<Class<?>, TypeParser<?>> sources = new ConcurrentHashMap<>();
+
+        Plan(@NotNull Class<?> target) {
+            this.target = target;
+            this.parser = Types.of(target);
+        }
+
+        @NotNull
+        TypeParser<?> get(@NotNull Class<?> source) {
+            TypeParser<?> plan = sources.get(source);
+            if (plan == null) {
+                plan = resolve(source);
+                if (source.getClassLoader() == null) {
+                    sources.put(source, plan);
+                }
+            }
+            return plan;
+        }
+
+        @NotNull
+        private TypeParser<?> resolve(@NotNull Class<?> source) {
+            // Any returned parser must not reference the source class
+            if (target.isAssignableFrom(source)) {
+                return IDENTITY;
+            }
+            if (source == String.class) {
+                if (target.isEnum()) {
+                    final EnumLookup lookup = ENUMS.get(target);
+                    return object -> lookup.get((String) object);
+                }
+                return parser;
+            }
+            if (target == String.class) {
+                if (isBoxedNumber(source) || source == Boolean.class || source == Character.class) {
+                    return String::valueOf;
+                }
+                return parser;
+            }
+            if (isBoxedNumber(source)) {
+                if (target == Integer.class || target == int.class) {
+                    return object -> ((Number) object).intValue();
+                } else if (target == Long.class || target == long.class) {
+                    return object -> ((Number) object).longValue();
+                } else if (target == Double.class || target == double.class) {
+                    return object -> ((Number) object).doubleValue();
+                } else if (target == Float.class || target == float.class) {
+                    return object -> ((Number) object).floatValue();
+                } else if (target == Short.class || target == short.class) {
+                    return object -> ((Number) object).shortValue();
+                } else if (target == Byte.class || target == byte.class) {
+                    return object -> ((Number) object).byteValue();
+                }
+            }
+            return parser;
+        }
+
+        private static boolean isBoxedNumber(@NotNull Class<?> type) {
+            return type == Integer.class || type == Long.class || type == Double.class
+                    || type == Float.class || type == Short.class || type == Byte.class;
+        }
+    }
+
+    private static final class EnumLookup {
+
+        private final int size;
+        private final Map<String, Object> names;
+        private final Map<String, Object> namesIgnoreCase;
+
+        EnumLookup(@NotNull Class<?> type) {
+            final Object[] constants = type.getEnumConstants();
+            this.size = constants == null ? 0 : constants.length;
+            this.names = new HashMap<>();
+            this.namesIgnoreCase = new HashMap<>();
+            if (constants != null) {
+                for (Object constant : constants) {
+                    final String name = ((Enum<?>) constant).name();
+                    names.put(name, constant);
+                    namesIgnoreCase.putIfAbsent(name.toUpperCase(Locale.ROOT), constant);
+                }
+            }
+        }
+
+        @Nullable
+        Object get(@NotNull String name) {
+            final Object constant = names.get(name);
+            if (constant != null) {
+                return constant;
+            }
+            return namesIgnoreCase.get(name.toUpperCase(Locale.ROOT));
+        }
+    }
+}
@@ -158,4 +158,84 @@ public interface ListValueType<T> extends AnyObject<T> {
     default List<UUID> asUniqueIdList() {
         return asList(Types.UUID);
     }
+
+    /**
+     * Convert this object into an array of integers.<br>
+     * Implementations may cache the returned array, so it must not be modified.
+     *
+     * @see Types#INTEGER
+     *
+     * @return an array containing only values that was converted into integers.
+     */
+    default int @NotNull [] asIntArray() {
+        final List<Integer> list = asIntList();
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Convert this object into an array of longs.<br>
+     * Implementations may cache the returned array, so it must not be modified.
+     *
+     * @see Types#LONG
+     *
+     * @return an array containing only values that was converted into longs.
+     */
+    default long @NotNull [] asLongArray() {
+        final List<Long> list = asLongList();
+        final long[] array = new long[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Convert this object into an array of doubles.<br>
+     * Implementations may cache the returned array, so it must not be modified.
+     *
+     * @see Types#DOUBLE
+     *
+     * @return an array containing only values that was converted into doubles.
+     */
+    default double @NotNull [] asDoubleArray() {
+        final List<Double> list = asDoubleList();
+        final double[] array = new double[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Convert this object into an array of booleans.<br>
+     * Implementations may cache the returned array, so it must not be modified.
+     *
+     * @see Types#BOOLEAN
+     *
+     * @return an array containing only values that was converted into booleans.
+     */
+    default boolean @NotNull [] asBooleanArray() {
+        final List<Boolean> list = asBooleanList();
+        final boolean[] array = new boolean[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Convert this object into an array of strings.<br>
+     * Implementations may cache the returned array, so it must not be modified.
+     *
+     * @see Types#STRING
+     *
+     * @return an array containing only values that was converted into strings.
+     */
+    default String @NotNull [] asStringArray() {
+        return asStringList().toArray(new String[0]);
+    }
 }
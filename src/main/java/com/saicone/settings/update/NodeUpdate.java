@@ -2,6 +2,8 @@ package com.saicone.settings.update;
 
 import com.saicone.settings.SettingsNode;
 import com.saicone.settings.node.MapNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.RegexPath;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -151,7 +153,19 @@ public class NodeUpdate {
     @NotNull
     @Contract("_ -> this")
     public NodeUpdate from(@NotNull String... path) {
-        return from(map -> map.get(path));
+        return from(map -> map.getOrCreate(path));
+    }
+
+    /**
+     * Set the node path where it will be got.
+     *
+     * @param path the node path.
+     * @return     this node update.
+     */
+    @NotNull
+    @Contract("_ -> this")
+    public NodeUpdate from(@NotNull NodePath path) {
+        return from(map -> map.getOrCreate(path));
     }
 
     /**
@@ -164,7 +178,7 @@ public class NodeUpdate {
     @NotNull
     @Contract("_ -> this")
     public NodeUpdate fromIgnoreCase(@NotNull String... path) {
-        return from(map -> map.getIgnoreCase(path));
+        return from(map -> map.getOrCreateIgnoreCase(path));
     }
 
     /**
@@ -177,7 +191,8 @@ public class NodeUpdate {
     @NotNull
     @Contract("_ -> this")
     public NodeUpdate fromRegex(@NotNull @Language("RegExp") String... path) {
-        return from(map -> map.getRegex(path));
+        final RegexPath regexPath = RegexPath.of(path);
+        return from(map -> map.getRegex(regexPath));
     }
 
     /**
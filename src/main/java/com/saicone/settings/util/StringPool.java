@@ -0,0 +1,159 @@
+package com.saicone.settings.util;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class to deduplicate strings across loaded settings.<br>
+ * Any pooled string is weakly referenced, so it's removed from pool once no settings node use it,
+ * and the pool is bounded, so any string after the maximum size is reached will not be pooled.<br>
+ * The same pool can be shared across multiple settings data instances, and it's safe to use from multiple threads.
+ *
+ * @author Rubenicos
+ */
+public class StringPool {
+
+    private static final int STRIPES = 16;
+
+    private final int stripeSize;
+    private final int maxLength;
+    private final Map<String, WeakReference<String>>[] stripes;
+
+    private final LongAdder savedBytes = new LongAdder();
+    private final LongAdder savedStrings = new LongAdder();
+
+    /**
+     * Constructs a string pool with default parameters.<br>
+     * This means up to 65536 strings with a maximum length of 256 characters.
+     */
+    public StringPool() {
+        this(65536, 256);
+    }
+
+    /**
+     * Constructs a string pool with the given parameters.
+     *
+     * @param maxSize   the maximum number of pooled strings.
+     * @param maxLength the maximum length of pooled strings, any larger string will not be pooled.
+     */
+    @SuppressWarnings("unchecked")
+    public StringPool(int maxSize, int maxLength) {
+        this.stripeSize = Math.max(1, maxSize / STRIPES);
+        this.maxLength = maxLength;
+        this.stripes = (Map<String, WeakReference<String>>[]) new Map<?, ?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * Get a pooled string that is equal to the provided string.<br>
+     * If the string was not pooled before, it will be pooled if the pool is not full.
+     *
+     * @param s the string to deduplicate.
+     * @return  a pooled string, or the provided string itself.
+     */
+    @Nullable
+    @Contract("!null -> !null")
+    public String intern(@Nullable String s) {
+        if (s == null || s.length() > maxLength) {
+            return s;
+        }
+        final int hash = s.hashCode();
+        final Map<String, WeakReference<String>> stripe = stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            final WeakReference<String> reference = stripe.get(s);
+            final String pooled = reference == null ? null : reference.get();
+            if (pooled != null) {
+                if (pooled != s) {
+                    savedBytes.add(sizeOf(s));
+                    savedStrings.increment();
+                }
+                return pooled;
+            }
+            if (stripe.size() < stripeSize) {
+                stripe.put(s, new WeakReference<>(s));
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Get the provided object as pooled string if it's a string.
+     *
+     * @param object the object to deduplicate.
+     * @return       a pooled string, or the provided object itself.
+     * @param <T>    the object type.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    @Contract("!null -> !null")
+    public <T> T internObject(@Nullable T object) {
+        if (object instanceof String) {
+            return (T) intern((String) object);
+        }
+        return object;
+    }
+
+    /**
+     * Get the estimated amount of memory that was saved by replacing strings with pooled instances.
+     *
+     * @return a size in bytes.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Get the number of strings that was replaced with pooled instances.
+     *
+     * @return a string count.
+     */
+    public long getSavedStrings() {
+        return savedStrings.sum();
+    }
+
+    /**
+     * Get the number of pooled strings.
+     *
+     * @return a string count.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, WeakReference<String>> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Remove every pooled string and reset statistics.
+     */
+    public void clear() {
+        for (Map<String, WeakReference<String>> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        savedBytes.reset();
+        savedStrings.reset();
+    }
+
+    private static long sizeOf(@NotNull String s) {
+        // String object plus backing array, aligned to 8 bytes
+        return 24 + ((16 + (long) s.length() + 7) & ~7L);
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool{size=" + size() + ", savedStrings=" + getSavedStrings() + ", savedBytes=" + getSavedBytes() + '}';
+    }
+}
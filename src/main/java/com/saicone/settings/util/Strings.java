@@ -43,6 +43,35 @@ public class Strings {
         return list.toArray(new String[0]);
     }
 
+    /**
+     * Convert provided string into a lower-case form that can be compared with {@link String#equals(Object)}
+     * to get the same result as {@link String#equalsIgnoreCase(String)}.<br>
+     * If the string doesn't have any character to convert, the same string is returned.
+     *
+     * @param s the string to convert.
+     * @return  a lower-case representation of the provided string.
+     */
+    @NotNull
+    public static String lowerCase(@NotNull String s) {
+        final int length = s.length();
+        int i = 0;
+        while (i < length) {
+            final char c = s.charAt(i);
+            if (c != Character.toLowerCase(Character.toUpperCase(c))) {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return s;
+        }
+        final char[] chars = s.toCharArray();
+        for (; i < length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
     /**
      * Replace every argument denoted by its index value ({0}, {1}, {2}...) inside provided string.
      *
@@ -0,0 +1,167 @@
+package com.saicone.settings;
+
+import com.google.common.collect.ImmutableMap;
+import com.saicone.settings.memory.ConcurrentMemory;
+import com.saicone.settings.node.ListNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.NodeValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentSettingsTest {
+
+    @Test
+    public void testLookup() {
+        final ConcurrentSettings settings = new ConcurrentSettings();
+        assertTrue(settings.getMemory() instanceof ConcurrentMemory);
+        settings.merge(ImmutableMap.of("a", ImmutableMap.of("b", 1, "Key", "value")), true);
+        settings.setIndexing(true);
+
+        assertEquals(1, settings.get("a", "b").getValue());
+        assertEquals(1, settings.get(NodePath.of("a", "b")).getValue());
+        assertEquals("value", settings.getIgnoreCase("a", "key").getValue());
+        assertSame(NodeValue.empty(), settings.find("a", "missing"));
+
+        // Missing node is created inside write operation
+        settings.get("a", "c").setValue(2);
+        assertEquals(2, settings.find(NodePath.of("a", "c")).getValue());
+
+        // Nested operations don't acquire the lock again
+        settings.write(() -> {
+            settings.set(NodeValue.of(3), "d", "e");
+            return settings.read(() -> settings.get("d", "e"));
+        });
+        assertEquals(3, settings.find(NodePath.of("d", "e")).getValue());
+
+        new SettingsParser().set(settings, 4, "d", "f");
+        assertEquals(4, settings.find("d", "f").getValue());
+
+        settings.clear();
+        assertSame(NodeValue.empty(), settings.find(NodePath.of("a", "b")));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        final ConcurrentSettings settings = new ConcurrentSettings();
+        for (int i = 0; i < 50; i++) {
+            settings.set(NodeValue.of(i), "section", "key" + i);
+        }
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        for (int i = 0; i < 50; i++) {
+                            final Object value = settings.find("section", "key" + i).getValue();
+                            if (value != null && !(value instanceof Integer)) {
+                                throw new IllegalStateException("Unexpected value: " + value);
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+
+        for (int n = 0; n < 200; n++) {
+            for (int i = 0; i < 50; i += 2) {
+                final String key = "key" + i;
+                // Child nodes are edited inside write operation
+                settings.write(() -> settings.find("section").asMapNode().remove(key));
+            }
+            for (int i = 0; i < 50; i += 2) {
+                settings.set(NodeValue.of(i), "section", "key" + i);
+            }
+        }
+        running.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        assertEquals(50, settings.find("section").asMapNode().size());
+        assertFalse(settings.isEmpty());
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        final ConcurrentSettings settings = new ConcurrentSettings();
+        settings.merge(ImmutableMap.of("Section", ImmutableMap.of("Key", 1)), true);
+        assertEquals(1, settings.findIgnoreCase("section", "key").getValue());
+        assertEquals(1, settings.getIgnoreCase(NodePath.of("SECTION", "KEY")).getValue());
+
+        // The index is updated by every edit
+        settings.set(NodeValue.of(2), "Section", "Other");
+        assertEquals(2, settings.findIgnoreCase("section", "other").getValue());
+        settings.write(() -> settings.find("Section").asMapNode().put("KEY", NodeValue.of(3)));
+        assertEquals(1, settings.findIgnoreCase("section", "key").getValue());
+        settings.write(() -> settings.find("Section").asMapNode().remove("Key"));
+        assertEquals(3, settings.findIgnoreCase("section", "key").getValue());
+        settings.remove("Section");
+        assertSame(NodeValue.empty(), settings.findIgnoreCase("section", "key"));
+    }
+
+    @Test
+    public void testConcurrentListRead() throws InterruptedException {
+        final ConcurrentSettings settings = new ConcurrentSettings();
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(i);
+        }
+        settings.set(NodeValue.of(values), "list");
+        final ListNode list = settings.find("list").asListNode();
+        final int stamp = list.getStamp();
+
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    for (int n = 0; n < 200; n++) {
+                        final ListNode node = settings.find("list").asListNode();
+                        int i = 0;
+                        for (SettingsNode element : node) {
+                            if (!Integer.valueOf(i).equals(element.getValue()) || !element.equals(node.get(i))) {
+                                throw new IllegalStateException("Unexpected element at " + i + ": " + element);
+                            }
+                            i++;
+                        }
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            readers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        assertNull(error.get());
+        // Reading elements doesn't edit the list
+        assertEquals(stamp, list.getStamp());
+        assertSame(list.get(0), list.get(0));
+
+        settings.write(() -> list.get(0).setValue(100));
+        assertEquals(100, settings.find("list").asListNode().get(0).getValue());
+        assertNotEquals(stamp, list.getStamp());
+    }
+}
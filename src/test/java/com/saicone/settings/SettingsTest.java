@@ -0,0 +1,193 @@
+package com.saicone.settings;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.saicone.settings.node.ListNode;
+import com.saicone.settings.node.NodePath;
+import com.saicone.settings.node.NodeValue;
+import com.saicone.settings.node.RegexPath;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SettingsTest {
+
+    @Test
+    public void testMaterializing() {
+        final Settings settings = new Settings().setMapMemory().setMaterializing(false);
+        settings.put("key1", ImmutableMap.of("sub", 1234));
+        assertFalse(settings.isMaterializing());
+
+        assertEquals(1234, settings.get("key1", "sub").getValue());
+        assertEquals(1234, settings.getIgnoreCase("KEY1", "SUB").getValue());
+        // Missing nodes are not created or memorized
+        assertSame(NodeValue.empty(), settings.get("key1", "missing"));
+        assertSame(NodeValue.empty(), settings.get("key2"));
+        assertSame(NodeValue.empty(), settings.getIgnoreCase("KEY2", "sub"));
+        assertEquals(1, settings.size());
+        assertEquals(1, settings.get("key1").asMapNode().size());
+
+        settings.put("key2", "value");
+        assertEquals("value", settings.get("key2").getValue());
+
+        // Updates still create the nodes they target
+        settings.getOrCreate("key3", "sub").setValue(5);
+        assertEquals(5, settings.get("key3", "sub").getValue());
+        assertTrue(settings.setMaterializing(true).isMaterializing());
+        assertEquals(null, settings.get("key4").getValue());
+        assertEquals(4, settings.size());
+    }
+
+    @Test
+    public void testStamp() {
+        Settings settings = new Settings().setMapMemory();
+        settings.put("key1", ImmutableMap.of("sub", "asd"));
+        settings.put("key2", 1234);
+
+        SettingsNode sub = settings.get("key1", "sub");
+        int rootStamp = settings.getStamp();
+        int subStamp = sub.getStamp();
+
+        sub.setValue("other");
+        assertNotEquals(subStamp, sub.getStamp());
+        assertNotEquals(rootStamp, settings.getStamp());
+
+        // Replace the memorized node with a new map node
+        subStamp = sub.getStamp();
+        SettingsNode replaced = sub.setValue(ImmutableMap.of("deep", 55));
+        assertNotSame(sub, replaced);
+        assertNotEquals(subStamp, sub.getStamp());
+        assertSame(replaced, settings.get("key1", "sub"));
+        assertEquals(55, settings.get("key1", "sub", "deep").getValue());
+
+        // Detached subtree is invalidated
+        SettingsNode deep = settings.get("key1", "sub", "deep");
+        int deepStamp = deep.getStamp();
+        settings.remove("key1");
+        assertNotEquals(deepStamp, deep.getStamp());
+        assertEquals(null, settings.find("key1", "sub", "deep").getValue());
+    }
+
+    @Test
+    public void testRecall() {
+        final Settings settings = new Settings().setMapMemory();
+        // Missing path is materialized with a detached parent map
+        final SettingsNode node = settings.get("x", "y");
+        assertEquals(null, settings.getValue().get("x"));
+
+        settings.put("x", NodeValue.of(ImmutableMap.of("y", 1)));
+        final SettingsNode recalled = settings.get("x", "y");
+        assertNotSame(node, recalled);
+        assertEquals(1, recalled.getValue());
+    }
+
+    @Test
+    public void testIndex() {
+        Settings settings = new Settings().setIndexing(true);
+        settings.put("key1", ImmutableMap.of("sub", ImmutableMap.of("deep", 1234)));
+        settings.put("key2", "asd");
+
+        assertEquals(1234, settings.getSplit("key1.sub.deep").getValue());
+        assertEquals("asd", settings.find(NodePath.parse("key2")).getValue());
+
+        settings.get("key1").asMapNode().put("other", 55);
+        assertEquals(55, settings.getSplit("key1.other").getValue());
+
+        settings.get("key1", "sub").setValue("replaced");
+        assertEquals("replaced", settings.getSplit("key1.sub").getValue());
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key1.sub.deep")));
+
+        settings.get("key2").moveRoot("key3", "moved");
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key2")));
+        assertEquals("asd", settings.getSplit("key3.moved").getValue());
+
+        settings.remove("key3");
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key3.moved")));
+
+        // Map views remove nodes with the same hooks
+        settings.put("key4", ImmutableMap.of("a", 1, "b", 2, "c", 3));
+        settings.get("key4").asMapNode().keySet().remove("a");
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key4.a")));
+        final Iterator<SettingsNode> values = settings.get("key4").asMapNode().values().iterator();
+        values.next();
+        values.remove();
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key4.b")));
+        assertEquals(3, settings.getSplit("key4.c").getValue());
+        settings.get("key4").asMapNode().entrySet().iterator().next().setValue(NodeValue.of(ImmutableMap.of("d", 4)));
+        assertEquals(4, settings.getSplit("key4.c.d").getValue());
+        settings.entrySet().removeIf(entry -> entry.getKey().equals("key4"));
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key4.c")));
+
+        settings.clear();
+        assertSame(NodeValue.empty(), settings.find(NodePath.parse("key1")));
+        settings.put("key1", 10);
+        assertNotSame(NodeValue.empty(), settings.find(NodePath.parse("key1")));
+    }
+
+    @Test
+    public void testRegex() {
+        RegexPath path = RegexPath.of("key1", "sub\\.key", "item-[0-9]+", "ab?c");
+        assertEquals("key1", path.getLiteral(0));
+        assertEquals("sub.key", path.getLiteral(1));
+        assertEquals(null, path.getLiteral(2));
+        assertTrue(path.matches("key1", "sub.key", "item-12", "ac"));
+        assertFalse(path.matches("key1", "sub.key", "item-", "abc"));
+        assertSame(RegexPath.compile("item-[0-9]+"), path.getPattern(2));
+
+        Settings node = new Settings().setMapMemory();
+        node.put("key1", ImmutableMap.of("item-a", 1, "item-2", 2, "other", 3));
+        assertEquals(2, node.getRegex(RegexPath.of("key1", "item-[0-9]")).getValue());
+        assertEquals(2, node.getRegex("key1", "item-[0-9]").getValue());
+        assertEquals(3, node.getRegex("k.y1", "oth(er|ers)").getValue());
+        assertEquals(null, node.getRegex("key1", "missing.*").getKey());
+        // Regex lookups are memorized with their path
+        assertSame(node.getRegex("key1", "item-[0-9]"), node.getRegex("key1", "item-[0-9]"));
+    }
+
+    @Test
+    public void testFreeze() {
+        final Settings settings = new Settings();
+        settings.merge(ImmutableMap.of(
+                "a", ImmutableMap.of("b", 1, "Key", "value"),
+                "list", ImmutableList.of(1, 2, 3)
+        ), true);
+        settings.setMapMemory();
+        settings.freeze();
+        assertTrue(settings.isFrozen());
+        assertTrue(settings.get("a").isFrozen());
+        assertFalse(settings.isMemorizing());
+
+        assertEquals(1, settings.get("a", "b").getValue());
+        assertEquals(1, settings.get(NodePath.of("a", "b")).getValue());
+        assertEquals("value", settings.getIgnoreCase("a", "key").getValue());
+        assertEquals(1, settings.getIgnoreCase("A", "B").getValue());
+        assertEquals(ImmutableList.of(1, 2, 3), settings.get("list").asLiteralObject());
+        // Frozen lists return frozen views of raw elements
+        final ListNode list = settings.get("list").asListNode();
+        assertTrue(list.get(0).isFrozen());
+        assertThrows(IllegalStateException.class, () -> list.get(0).setValue(5));
+        // Missing nodes are not created
+        assertSame(NodeValue.empty(), settings.get("a", "missing"));
+        assertSame(NodeValue.empty(), settings.get(NodePath.of("missing", "path")));
+        assertEquals(2, settings.getValue().size());
+
+        assertThrows(IllegalStateException.class, () -> settings.get("a", "b").setValue(2));
+        assertThrows(IllegalStateException.class, () -> settings.get("a", "b").setKey("c"));
+        assertThrows(IllegalStateException.class, () -> settings.get("a").asMapNode().put("c", NodeValue.of(3)));
+        assertThrows(IllegalStateException.class, () -> settings.remove("a"));
+        assertThrows(IllegalStateException.class, () -> settings.set(NodeValue.of(3), "c"));
+        assertThrows(IllegalStateException.class, () -> settings.edit(node -> null));
+        assertThrows(IllegalStateException.class, () -> settings.get("list").asListNode().add(NodeValue.of(4)));
+        assertThrows(IllegalStateException.class, () -> settings.setTopComment(ImmutableList.of("comment")));
+        assertThrows(UnsupportedOperationException.class, () -> settings.getValue().remove("a"));
+        assertEquals(1, settings.get("a", "b").getValue());
+    }
+}
@@ -0,0 +1,46 @@
+package com.saicone.settings.key;
+
+import com.google.common.collect.ImmutableMap;
+import com.saicone.settings.Settings;
+import com.saicone.types.Types;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SettingsKeyTest {
+
+    @Test
+    public void testGet() {
+        Settings settings = new Settings();
+        settings.put("key1", ImmutableMap.of("sub", "1234"));
+
+        IntSettingsKey key = SettingsKey.ofInt("key1.sub", 10);
+        assertEquals(1234, key.getInt(settings));
+
+        settings.get("key1", "sub").setValue(55);
+        assertEquals(55, key.getInt(settings));
+
+        // Replaced node
+        settings.get("key1").setValue(ImmutableMap.of("sub", 20));
+        assertEquals(20, key.getInt(settings));
+
+        settings.remove("key1");
+        assertEquals(10, key.getInt(settings));
+
+        // Missing node is refreshed after node addition
+        settings.put("key1", ImmutableMap.of("sub", 30));
+        assertEquals(30, key.getInt(settings));
+
+        SettingsKey<String> stringKey = SettingsKey.of("key2", Types.STRING, "none");
+        assertEquals("none", stringKey.get(settings));
+        settings.put("key2", "asd");
+        assertEquals("asd", stringKey.get(settings));
+
+        BooleanSettingsKey booleanKey = SettingsKey.ofBoolean("key3", false);
+        assertFalse(booleanKey.getBoolean(settings));
+        settings.put("key3", true);
+        assertTrue(booleanKey.getBoolean(settings));
+    }
+}
@@ -0,0 +1,90 @@
+package com.saicone.settings.memory;
+
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.MapNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentMemoryTest {
+
+    @Test
+    public void testEviction() {
+        MapNode node = new MapNode();
+        for (int i = 0; i < 100; i++) {
+            node.put("key" + i, i);
+        }
+
+        ConcurrentMemory memory = new ConcurrentMemory(10);
+        for (int i = 0; i < 10; i++) {
+            memory.save("key" + i, node.get("key" + i));
+        }
+        // Make the saved nodes frequently accessed
+        for (int n = 0; n < 5; n++) {
+            for (int i = 0; i < 10; i++) {
+                assertSame(node.get("key" + i), memory.get("key" + i));
+            }
+        }
+        for (int i = 10; i < 100; i++) {
+            memory.save("key" + i, node.get("key" + i));
+        }
+
+        assertTrue(memory.size() <= 10);
+        int hot = 0;
+        for (int i = 0; i < 10; i++) {
+            if (memory.get("key" + i) != null) {
+                hot++;
+            }
+        }
+        assertEquals(10, hot, "Frequently accessed nodes were evicted");
+
+        // Frequently requested ids are admitted
+        for (int n = 0; n < 12; n++) {
+            assertNull(memory.get("key50"));
+        }
+        memory.save("key50", node.get("key50"));
+        assertSame(node.get("key50"), memory.get("key50"));
+        assertTrue(memory.size() <= 10);
+
+        SettingsNode saved = node.get("key0");
+        memory.remove(saved);
+        assertNull(memory.get("key0"));
+    }
+
+    @Test
+    public void testWeakValues() {
+        MapNode node = new MapNode();
+        node.put("key", 1234);
+        node.put("other", 5678);
+
+        ConcurrentMemory memory = new ConcurrentMemory().weakValues();
+        SettingsNode saved = node.get("key");
+        memory.save("key", saved);
+        memory.save("alias", saved);
+        memory.save("other", node.get("other"));
+        assertSame(saved, memory.get("alias"));
+
+        memory.remove(saved);
+        assertNull(memory.get("key"));
+        assertNull(memory.get("alias"));
+        assertEquals(1, memory.size());
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        MapNode node = new MapNode();
+        node.put("key", 1234);
+
+        ConcurrentMemory memory = new ConcurrentMemory().expireAfterAccess(20, TimeUnit.MILLISECONDS);
+        memory.save("key", node.get("key"));
+        assertEquals(1234, memory.get("key").getValue());
+        Thread.sleep(50);
+        assertNull(memory.get("key"));
+        assertEquals(0, memory.size());
+    }
+}
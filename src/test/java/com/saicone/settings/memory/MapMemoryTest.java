@@ -0,0 +1,68 @@
+package com.saicone.settings.memory;
+
+import com.google.common.collect.ImmutableMap;
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import com.saicone.settings.node.MapNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MapMemoryTest {
+
+    @Test
+    public void testRemove() {
+        MapNode node = new MapNode();
+        node.put("key1", "asd");
+        node.put("key2", "asd");
+        node.put("key3", ImmutableMap.of("sub", 1234));
+
+        MapMemory memory = new MapMemory();
+        memory.save("key1", node.get("key1"));
+        memory.save("other", node.get("key1"));
+        memory.save("key2", node.get("key2"));
+        memory.save("key3", node.get("key3"));
+        memory.save("key3.sub", node.get("key3", "sub"));
+
+        // Equal nodes are not removed
+        memory.remove(node.get("key1"));
+        assertNull(memory.get("key1"));
+        assertNull(memory.get("other"));
+        assertSame(node.get("key2"), memory.get("key2"));
+
+        // Replaced ids are not removed by previous node
+        memory.save("key2", node.get("key3"));
+        memory.remove(node.get("key2"));
+        assertSame(node.get("key3"), memory.get("key2"));
+
+        memory.removeTree(node.get("key3"));
+        assertNull(memory.get("key2"));
+        assertNull(memory.get("key3"));
+        assertNull(memory.get("key3.sub"));
+    }
+
+    @Test
+    public void testStats() {
+        MapMemory memory = new MapMemory();
+        Settings settings = new Settings(memory);
+        settings.put("Key", "asd");
+
+        settings.get("Key");
+        settings.get("Key");
+        SettingsNode ignoreCase = settings.getIgnoreCase("KEY");
+        // Ignore case lookups are not shared with exact lookups
+        assertNotSame(ignoreCase, settings.get("KEY"));
+        settings.getRegex("K.y");
+
+        MemoryStats stats = memory.getStats();
+        assertEquals(1, stats.getHitCount(MemoryStats.Kind.EXACT));
+        assertEquals(2, stats.getMissCount(MemoryStats.Kind.EXACT));
+        assertEquals(2, stats.getLoadCount(MemoryStats.Kind.EXACT));
+        assertEquals(1, stats.getMissCount(MemoryStats.Kind.IGNORE_CASE));
+        assertEquals(1, stats.getLoadCount(MemoryStats.Kind.REGEX));
+        assertEquals(4, memory.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.saicone.settings.node;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledSettingsTest {
+
+    @Test
+    public void testCompile() {
+        final MapNode node = new MapNode().merge(ImmutableMap.of(
+                "a", ImmutableMap.of("b", 1, "c", 2L, "d", 1.5, "e", true),
+                "text", "value",
+                "list", ImmutableList.of(1, 2, ImmutableMap.of("f", "value")),
+                "float", 1.5f
+        ), true);
+        node.get("a").setTopComment(ImmutableList.of("Top comment"));
+        node.get("text").setSideComment(ImmutableList.of("Side comment"));
+
+        final CompiledSettings compiled = node.compile();
+        assertEquals(13, compiled.size());
+        assertEquals(node.asLiteralObject(), compiled.getRoot().asLiteralObject());
+
+        assertEquals(1, compiled.get("a", "b").getValue());
+        assertEquals(2L, compiled.get(NodePath.of("a", "c")).getValue());
+        assertEquals(1.5, compiled.get("a", "d").getValue());
+        assertEquals(true, compiled.get("a", "e").getValue());
+        assertEquals(1.5f, compiled.get("float").getValue());
+        assertEquals("value", compiled.get("text").asString());
+        assertEquals(ImmutableList.of("Top comment"), compiled.get("a").getTopComment());
+        assertEquals(ImmutableList.of("Side comment"), compiled.get("text").getSideComment());
+        assertSame(NodeValue.empty(), compiled.get("a", "missing"));
+        assertSame(NodeValue.empty(), compiled.get("text", "missing"));
+
+        final CompiledNode list = (CompiledNode) compiled.get("list");
+        assertTrue(list.isList());
+        assertEquals(3, list.size());
+        assertEquals(2, list.get(1).getValue());
+        assertEquals("value", ((CompiledNode) list.get(2)).get("f").getValue());
+        assertNull(list.get(0).getKey());
+
+        final CompiledNode child = (CompiledNode) compiled.get("a", "b");
+        assertEquals("b", child.getKey());
+        assertEquals("a", child.getParentNode().getKey());
+        assertTrue(child.getParentNode().getParentNode().isRoot());
+        assertFalse(child.isRoot());
+
+        assertThrows(IllegalStateException.class, () -> child.setValue(2));
+        assertThrows(IllegalStateException.class, () -> child.setKey("c"));
+
+        final MapNode copy = compiled.toMapNode();
+        assertEquals(node.asLiteralObject(), copy.asLiteralObject());
+        assertEquals(ImmutableList.of("Top comment"), copy.get("a").getTopComment());
+        assertEquals(1, ((MapNode) compiled.get("a").copy()).get("b").getValue());
+        assertThrows(IllegalStateException.class, () -> compiled.get("a").asMapNode());
+        assertThrows(IllegalStateException.class, () -> compiled.get("list").asListNode());
+        assertThrows(IllegalStateException.class, () -> compiled.get("text").asObjectNode());
+    }
+
+    @Test
+    public void testParentNodes() {
+        final MapNode node = new MapNode().merge(ImmutableMap.of(
+                "a", ImmutableMap.of("b", ImmutableMap.of("c", 1)),
+                "list", ImmutableList.of(ImmutableMap.of("d", 2))
+        ), true);
+        final CompiledSettings compiled = node.compile();
+
+        final CompiledNode child = (CompiledNode) compiled.get("a", "b", "c");
+        final StringBuilder path = new StringBuilder(child.getKey());
+        CompiledNode parent = child.getParentNode();
+        while (parent != null && !parent.isRoot()) {
+            path.insert(0, parent.getKey() + ".");
+            parent = parent.getParentNode();
+        }
+        assertEquals("a.b.c", path.toString());
+        assertEquals(compiled.getRoot(), parent);
+        assertEquals(compiled.getRoot(), child.getRoot());
+        assertNull(child.getParent());
+
+        final CompiledNode element = (CompiledNode) ((CompiledNode) compiled.get("list")).get(0);
+        assertEquals("list", element.getParentNode().getKey());
+        assertEquals(element, ((CompiledNode) element.get("d")).getParentNode());
+        assertEquals(compiled.getRoot(), element.getRoot());
+
+        // Parent operations don't fallback into key edits
+        assertThrows(IllegalStateException.class, child::delete);
+        assertThrows(IllegalStateException.class, () -> child.move("a", "d"));
+        assertThrows(IllegalStateException.class, () -> child.moveRoot("d"));
+        assertEquals(1, compiled.get("a", "b", "c").getValue());
+    }
+
+    @Test
+    public void testLargeMap() {
+        final MapNode node = new MapNode();
+        for (int i = 0; i < 2000; i++) {
+            node.set(NodeValue.of("value" + (i % 10)), "section" + (i % 20), "key" + i);
+        }
+        final CompiledSettings compiled = node.compile();
+        assertEquals(2021, compiled.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("value" + (i % 10), compiled.get("section" + (i % 20), "key" + i).getValue());
+        }
+        assertSame(NodeValue.empty(), compiled.get("section0", "key1"));
+
+        int count = 0;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) compiled.get("section1").getValue()).entrySet()) {
+            assertEquals("key" + (count * 20 + 1), entry.getKey());
+            count++;
+        }
+        assertEquals(100, count);
+    }
+}
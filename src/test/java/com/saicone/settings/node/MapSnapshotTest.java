@@ -0,0 +1,116 @@
+package com.saicone.settings.node;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapSnapshotTest {
+
+    @Test
+    public void testOrder() {
+        MapSnapshot snapshot = MapSnapshot.empty();
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            final String key = "key" + (i * 7 % 500);
+            keys.add(key);
+            snapshot = snapshot.with(key, i);
+        }
+        assertEquals(500, snapshot.size());
+        assertEquals(keys, snapshot.keys());
+
+        // Replaced keys keep their order
+        snapshot = snapshot.with("key0", "replaced");
+        assertEquals(keys, snapshot.keys());
+        assertEquals("replaced", snapshot.get("key0"));
+
+        for (int i = 0; i < 250; i++) {
+            snapshot = snapshot.without(keys.get(i));
+        }
+        assertEquals(250, snapshot.size());
+        assertEquals(keys.subList(250, 500), snapshot.keys());
+        assertNull(snapshot.get(keys.get(0)));
+    }
+
+    @Test
+    public void testCollision() {
+        // Both keys have the same hash code
+        final MapSnapshot snapshot = MapSnapshot.empty().with("Aa", 1).with("BB", 2);
+        assertEquals(1, snapshot.get("Aa"));
+        assertEquals(2, snapshot.get("BB"));
+        assertEquals(ImmutableList.of("Aa", "BB"), snapshot.keys());
+
+        final MapSnapshot removed = snapshot.without("Aa");
+        assertNull(removed.get("Aa"));
+        assertEquals(2, removed.get("BB"));
+        assertEquals(1, removed.size());
+    }
+
+    @Test
+    public void testPath() {
+        final MapSnapshot first = MapSnapshot.of(ImmutableMap.of(
+                "a", ImmutableMap.of("b", 1, "c", ImmutableList.of(1, 2)),
+                "d", ImmutableMap.of("e", "value")
+        ));
+        final MapSnapshot second = first.with(new String[] {"a", "b"}, 2);
+        assertEquals(1, first.get("a", "b"));
+        assertEquals(2, second.get("a", "b"));
+        assertEquals(2, second.get(NodePath.of("a", "b")));
+        assertEquals("2", second.get(String.class, "a", "b"));
+        // Untouched sub maps are shared
+        assertSame(first.get("d"), second.get("d"));
+        assertSame(first.get("a", "c"), second.get("a", "c"));
+
+        assertFalse(second.without("a", "b").contains("a", "b"));
+        assertTrue(second.without("a", "b").contains("a", "c"));
+        assertSame(second, second.without("x", "y"));
+        assertEquals(first, MapSnapshot.of(first.asLiteralObject()));
+        assertEquals(first, first.toMapNode().snapshot());
+    }
+
+    @Test
+    public void testNodeSnapshot() {
+        final MapNode node = new MapNode().merge(ImmutableMap.of(
+                "a", ImmutableMap.of("b", 1),
+                "d", ImmutableMap.of("e", "value"),
+                "list", ImmutableList.of(1, 2, 3)
+        ), true);
+        final MapSnapshot first = node.snapshot();
+        assertSame(first, node.snapshot());
+        assertEquals(ImmutableList.of(1, 2, 3), first.get("list"));
+
+        node.get("a", "b").setValue(5);
+        final MapSnapshot second = node.snapshot();
+        assertNotSame(first, second);
+        assertEquals(1, first.get("a", "b"));
+        assertEquals(5, second.get("a", "b"));
+        assertSame(first.get("d"), second.get("d"));
+
+        // List element changes update the snapshot
+        node.get("list").asListNode().get(0).setValue(4);
+        final MapSnapshot third = node.snapshot();
+        assertEquals(ImmutableList.of(4, 2, 3), third.get("list"));
+        assertSame(second.get("a"), third.get("a"));
+
+        // Removed and inserted keys keep the map order
+        node.remove("a");
+        node.put("x", NodeValue.of(1));
+        node.put("a", NodeValue.of(2));
+        final MapSnapshot fourth = node.snapshot();
+        assertEquals(ImmutableList.of("d", "list", "x", "a"), fourth.keys());
+        assertEquals(node.asLiteralObject(), fourth.asLiteralObject());
+        assertSame(third.get("d"), fourth.get("d"));
+
+        node.clear();
+        assertTrue(node.snapshot().isEmpty());
+    }
+}
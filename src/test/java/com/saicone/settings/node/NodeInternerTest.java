@@ -0,0 +1,105 @@
+package com.saicone.settings.node;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeInternerTest {
+
+    @Test
+    public void testIntern() {
+        final Map<String, Object> template = ImmutableMap.of(
+                "material", new String("DIAMOND_SWORD"),
+                "lore", ImmutableList.of(1, 2, 3),
+                "names", ImmutableList.of(new String("first"), new String("second"))
+        );
+        final MapNode first = new MapNode().merge(ImmutableMap.of("item", template), true);
+        final MapNode second = new MapNode().merge(ImmutableMap.of("item", ImmutableMap.of(
+                "material", new String("DIAMOND_SWORD"),
+                "lore", ImmutableList.of(1, 2, 3),
+                "names", ImmutableList.of(new String("first"), new String("second"))
+        )), true);
+        first.get("item", "material").setTopComment(new ArrayList<>(ImmutableList.of("comment")));
+        second.get("item", "material").setTopComment(new ArrayList<>(ImmutableList.of("comment")));
+
+        final NodeInterner interner = new NodeInterner();
+        interner.intern(first);
+        interner.intern(second);
+        assertEquals(1, interner.getSharedValues());
+        assertEquals(1, interner.getSharedComments());
+        assertEquals(2, interner.getSharedLists());
+        assertSame(first.get("item", "material").getValue(), second.get("item", "material").getValue());
+        assertSame(first.get("item", "material").getTopComment(), second.get("item", "material").getTopComment());
+        assertEquals(first, second);
+
+        // Copy on write
+        second.get("item", "lore").asListNode().merge(ImmutableList.of(4));
+        second.get("item", "names").asListNode().get(0).setValue("third");
+        second.get("item", "material").addTopComment(ImmutableList.of("other"));
+        assertEquals(ImmutableList.of(1, 2, 3), first.get("item", "lore").asLiteralObject());
+        assertEquals(ImmutableList.of(1, 2, 3, 4), second.get("item", "lore").asLiteralObject());
+        assertEquals(ImmutableList.of("first", "second"), first.get("item", "names").asLiteralObject());
+        assertEquals(ImmutableList.of("third", "second"), second.get("item", "names").asLiteralObject());
+        assertEquals(ImmutableList.of("comment"), first.get("item", "material").getTopComment());
+        assertEquals(ImmutableList.of("comment", "other"), second.get("item", "material").getTopComment());
+    }
+
+    @Test
+    public void testFrozenMaps() {
+        final Map<String, Object> template = ImmutableMap.of("material", "DIAMOND_SWORD", "amount", 1, "glow", true);
+        final Settings first = new Settings().setMapMemory();
+        first.merge(ImmutableMap.of("items", ImmutableMap.of("sword", template, "axe", template)), true);
+        final MapNode second = new MapNode().merge(ImmutableMap.of("items", ImmutableMap.of(
+                "sword", template,
+                "other", ImmutableMap.of("amount", 1, "material", "DIAMOND_SWORD", "glow", true)
+        )), true);
+        first.freeze();
+        second.freeze();
+
+        final NodeInterner interner = new NodeInterner();
+        interner.intern(first);
+        interner.intern(second);
+        // Maps with the same entries in other order are not shared
+        assertEquals(2, interner.getSharedMaps());
+        assertEquals(template, first.get("items", "sword").asLiteralObject());
+        assertEquals(template, second.get("items", "sword").asLiteralObject());
+        assertEquals(ImmutableMap.of("amount", 1, "material", "DIAMOND_SWORD", "glow", true), second.get("items", "other").asLiteralObject());
+
+        // Children are frozen views attached to their own parent
+        final SettingsNode amount = first.get("items", "axe", "amount");
+        assertTrue(amount instanceof IntNode);
+        assertEquals(1, amount.asInt());
+        assertTrue(amount.isFrozen());
+        assertSame(first.get("items", "axe"), amount.getParent());
+        assertEquals("amount", amount.getKey());
+        assertThrows(IllegalStateException.class, () -> amount.setValue(2));
+        assertFalse(first.get("items", "axe").asMapNode().getValue().containsKey("other"));
+
+        // Children of shared maps are not indexed
+        assertEquals(amount, first.get(NodePath.of("items", "axe", "amount")));
+    }
+
+    @Test
+    public void testFrozenSubtree() {
+        final Settings settings = new Settings().setMapMemory();
+        settings.merge(ImmutableMap.of("items", ImmutableMap.of("sword", ImmutableMap.of("amount", 1))), true);
+        settings.get("items").asMapNode().freeze();
+        new NodeInterner().intern(settings);
+        assertTrue(settings.get("items", "sword").asMapNode().isShared());
+
+        // Views are recalled from memory
+        final SettingsNode amount = settings.get("items", "sword", "amount");
+        assertSame(amount, settings.get("items", "sword", "amount"));
+    }
+}
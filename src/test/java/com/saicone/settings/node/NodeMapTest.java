@@ -0,0 +1,71 @@
+package com.saicone.settings.node;
+
+import com.saicone.settings.Settings;
+import com.saicone.settings.SettingsNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeMapTest {
+
+    @Test
+    public void testOrder() {
+        final Random random = new Random(1234);
+        final Map<String, Integer> expected = new LinkedHashMap<>();
+        final Map<String, Integer> map = new NodeMap<>();
+        for (int i = 0; i < 20000; i++) {
+            final String key = "key" + random.nextInt(300);
+            final int action = random.nextInt(10);
+            if (action < 6) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else if (action < 9) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        final Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Integer> entry = iterator.next();
+            if (entry.getValue() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(-1);
+            }
+        }
+        expected.entrySet().removeIf(entry -> entry.getValue() % 2 == 0);
+        expected.replaceAll((key, value) -> -1);
+        assertEquals(expected, map);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("key1"));
+        map.put("key1", 1);
+        assertEquals(1, map.get("key1"));
+    }
+
+    @Test
+    public void testSupplier() {
+        final Settings settings = new Settings().setMapSupplier(TreeMap::new);
+        settings.getOrCreate("b", "key");
+        settings.getOrCreate("a", "key");
+        final SettingsNode node = settings.get("b");
+        assertTrue(node.asMapNode().getValue() instanceof TreeMap);
+        assertTrue(new MapNode().getValue() instanceof NodeMap);
+    }
+}
@@ -0,0 +1,34 @@
+package com.saicone.settings.node;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class NodePathTest {
+
+    @Test
+    public void testParse() {
+        NodePath path = NodePath.parse("key1.sub\\.key.sub2");
+        assertEquals(3, path.size());
+        assertEquals("sub.key", path.getKey(1));
+        assertEquals("sub2", path.getLast());
+        assertSame(path, NodePath.parse("key1.sub\\.key.sub2"));
+        assertEquals(NodePath.of("key1", "sub.key", "sub2"), path);
+        assertEquals("$IgnoreCase.key1.sub.key.sub2", path.toIgnoreCaseString());
+        assertSame(path.toIgnoreCaseString(), path.toIgnoreCaseString());
+    }
+
+    @Test
+    public void testGet() {
+        MapNode node = new MapNode();
+        node.child("key1", ImmutableMap.of("sub1", ImmutableMap.of("sub2", 1234)));
+        node.child("Key2", ImmutableMap.of("Sub1", true));
+
+        NodePath path = NodePath.parse("key1.sub1.sub2");
+        assertSame(node.get("key1", "sub1", "sub2"), node.get(path));
+        assertSame(node.get("key1", "sub1", "sub2"), node.getSplit(path));
+        assertEquals(true, node.getIgnoreCase(NodePath.of("key2", "sub1")).getValue());
+    }
+}
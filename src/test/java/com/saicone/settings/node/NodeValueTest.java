@@ -3,12 +3,26 @@ package com.saicone.settings.node;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.saicone.settings.SettingsNode;
+import com.saicone.types.Types;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NodeValueTest {
 
@@ -103,4 +117,291 @@ public class NodeValueTest {
 
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void testMapIgnoreCase() {
+        MapNode node = new MapNode();
+        node.child("Key1", "asd");
+        node.child("KEY2", ImmutableMap.of("Sub", 1234));
+
+        assertEquals("asd", node.getIgnoreCase("key1").getValue());
+        assertEquals(1234, node.getIgnoreCase("key2", "sub").getValue());
+
+        node.get("Key1").setKey("other");
+        node.child("kEy1", 55);
+        assertEquals(55, node.getIgnoreCase("KEY1").getValue());
+        assertEquals("asd", node.getIgnoreCase("OTHER").getValue());
+
+        node.remove("kEy1");
+        assertEquals(2, node.size());
+        assertEquals(null, node.getIgnoreCase("key1").getValue());
+        assertEquals(3, node.size());
+    }
+
+    @Test
+    public void testMapFind() {
+        MapNode node = new MapNode();
+        node.child("Key1", "asd");
+        node.child("key2", ImmutableMap.of("sub", 1234));
+
+        assertEquals("asd", node.find("Key1").getValue());
+        assertEquals(1234, node.find("key2", "sub").getValue());
+        assertEquals(1234, node.findIgnoreCase("KEY2", "SUB").getValue());
+        assertSame(NodeValue.empty(), node.find("key3"));
+        assertSame(NodeValue.empty(), node.find("key2", "sub", "deep"));
+        assertFalse(node.getIfPresent("key2", "other").isPresent());
+        assertEquals(2, node.size());
+        assertEquals(1, node.get("key2").asMapNode().size());
+
+        assertThrows(IllegalStateException.class, () -> node.find("key3").setValue("test"));
+
+        assertEquals(null, node.getOrCreate("key3", "sub").getValue());
+        assertEquals(3, node.size());
+        assertTrue(node.getIfPresent("key3", "sub").isPresent());
+    }
+
+    @Test
+    public void testSwap() {
+        final MapNode map = new MapNode();
+        map.put("a", NodeValue.of(1));
+        final SettingsNode previous = map.get("a");
+        final MapNode other = new MapNode();
+        other.put("b", NodeValue.of(2));
+
+        final int stamp = map.getStamp();
+        map.swap(other);
+        assertNotEquals(stamp, map.getStamp());
+        assertNull(previous.getParent());
+        assertSame(map, map.get("b").getParent());
+        assertEquals(ImmutableMap.of("b", 2), map.asLiteralObject());
+    }
+
+    @Test
+    public void testParsedCache() throws InterruptedException {
+        final SettingsNode node = NodeValue.of("1234");
+        assertEquals(1234, node.asInt());
+        assertEquals("1234", node.asString());
+        assertEquals(1234L, node.asLong());
+        assertSame(node.asInt(), node.asInt());
+
+        node.setValue("5678");
+        assertEquals(5678, node.asInt());
+        assertEquals("5678", node.asString());
+        assertEquals(-1, NodeValue.of("text").asInt(-1));
+
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    final Integer number = node.asInt();
+                    final String text = node.asString();
+                    final Double decimal = node.asDouble();
+                    if (number == null || number != 5678 || !"5678".equals(text) || decimal == null || decimal != 5678.0) {
+                        failed.set(true);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed.get());
+    }
+
+    @Test
+    public void testPrimitive() {
+        final MapNode map = new MapNode().merge(ImmutableMap.of("int", 12, "long", 34L, "double", 5.6, "boolean", true), true);
+        final IntNode intNode = (IntNode) map.get("int");
+        assertEquals(12, intNode.getInt());
+        assertEquals(12, intNode.getValue());
+        assertEquals("12", intNode.asString());
+        assertEquals(34L, ((LongNode) map.get("long")).getLong());
+        assertEquals(5.6, ((DoubleNode) map.get("double")).getDouble());
+        assertTrue(((BooleanNode) map.get("boolean")).getBoolean());
+        assertEquals(NodeValue.of(12), intNode);
+        // Values with its own type are saved as primitive
+        final IntNode bigNode = new IntNode(1000);
+        assertEquals(1000, bigNode.as(Types.INTEGER));
+        bigNode.setSourceValue(2000);
+        assertTrue(bigNode.isPrimitive());
+        assertEquals(2000, bigNode.getInt());
+        assertEquals(2000, bigNode.getSourceValue());
+
+        intNode.setValue("56");
+        assertFalse(intNode.isPrimitive());
+        assertEquals(56, intNode.getInt());
+        assertEquals(12, intNode.getSourceValue());
+
+        intNode.setSourceValue(78);
+        assertEquals(56, intNode.getInt());
+        assertEquals(78, intNode.getSourceValue());
+
+        final SettingsNode node = map.get("long").setValue(ImmutableMap.of("key", "value"));
+        assertTrue(node.isMap());
+        assertEquals(34L, node.getSourceValue());
+    }
+
+    @Test
+    public void testCompactList() {
+        final ListNode list = new ListNode().merge(ImmutableList.of(1, 2, 3));
+        assertEquals(ImmutableList.of(1, 2, 3), list.asList(Types.INTEGER));
+        assertEquals(ImmutableList.of("1", "2", "3"), list.asList(Types.STRING));
+        assertEquals(ImmutableList.of(1, 2, 3), list.asLiteralObject());
+        assertEquals(NodeValue.of(ImmutableList.of(1, 2, 3)), list);
+        assertTrue(list.contains(NodeValue.of(2)));
+        assertEquals(1, list.indexOf(NodeValue.of(2)));
+
+        // Raw elements are saved as node once they're accessed
+        final SettingsNode node = list.get(1);
+        assertSame(node, list.get(1));
+        node.setTopComment(ImmutableList.of("comment"));
+        assertEquals(ImmutableList.of("comment"), list.get(1).getTopComment());
+
+        final int stamp = list.getStamp();
+        list.merge(ImmutableList.of("text", 4.5));
+        assertEquals(stamp + 1, list.getStamp());
+        assertEquals(ImmutableList.of(1, 2, 3, "text", 4.5), list.asLiteralObject());
+        assertSame(node, list.get(1));
+
+        list.remove(0);
+        assertSame(node, list.get(0));
+        list.add(0, NodeValue.of(ImmutableMap.of("key", "value")));
+        assertTrue(list.get(0).isMap());
+        assertEquals(ImmutableList.of(ImmutableMap.of("key", "value"), 2, 3, "text", 4.5), list.asLiteralObject());
+
+        final SettingsNode copy = list.copy();
+        assertEquals(list, copy);
+        assertEquals(ImmutableList.of("comment"), ((ListNode) copy).get(1).getTopComment());
+    }
+
+    @Test
+    public void testListElementView() {
+        final ListNode list = new ListNode().merge(ImmutableList.of("a", "b", "c"));
+        assertTrue(((NodeList) list.getValue()).isRaw());
+        assertEquals(ImmutableList.of("a", "b", "c"), list.asLiteralObject());
+        assertTrue(((NodeList) list.getValue()).isRaw());
+        for (SettingsNode element : list) {
+            assertSame(element, list.get(list.indexOf(element)));
+        }
+        assertFalse(((NodeList) list.getValue()).isRaw());
+
+        final MapNode map = new MapNode();
+        map.put("list", list);
+        final int stamp = map.getStamp();
+        list.get(0).setValue("d");
+        assertNotEquals(stamp, map.getStamp());
+        assertEquals(ImmutableList.of("d", "b", "c"), list.asLiteralObject());
+        assertEquals(1, list.indexOf(NodeValue.of("b")));
+
+        // Accessed elements keep their edits after structural modifications
+        final ListNode other = new ListNode().merge(ImmutableList.of(1, 2, 3));
+        final SettingsNode first = other.get(0);
+        other.add(NodeValue.of(4));
+        first.setValue(10);
+        assertSame(first, other.get(0));
+        assertEquals(ImmutableList.of(10, 2, 3, 4), other.asLiteralObject());
+        final int listStamp = other.getStamp();
+        first.setTopComment(ImmutableList.of("comment"));
+        first.setValue(11);
+        assertNotEquals(listStamp, other.getStamp());
+        assertEquals(ImmutableList.of("comment"), other.get(0).getTopComment());
+
+        // Removed elements are detached
+        final SettingsNode view = list.get(2);
+        list.remove(2);
+        view.setValue("f");
+        assertEquals(ImmutableList.of("d", "b"), list.asLiteralObject());
+
+        // Frozen lists return frozen views of raw elements
+        final ListNode frozen = new ListNode().merge(ImmutableList.of(1, 2, 3));
+        frozen.freeze();
+        assertTrue(frozen.get(0).isFrozen());
+        assertTrue(((NodeList) frozen.getValue()).isRaw());
+        assertThrows(IllegalStateException.class, () -> frozen.get(0).setValue(5));
+    }
+
+    @Test
+    public void testListArray() {
+        final ListNode list = new ListNode().merge(ImmutableList.of(1, 2, 3));
+        final int[] ints = list.asIntArray();
+        assertArrayEquals(new int[] { 1, 2, 3 }, ints);
+        assertSame(ints, list.asIntArray());
+        assertArrayEquals(new double[] { 1.0, 2.0, 3.0 }, list.asDoubleArray());
+        assertArrayEquals(new String[] { "1", "2", "3" }, list.asStringArray());
+
+        list.add(NodeValue.of("4"));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, list.asIntArray());
+        assertArrayEquals(new long[] { 1L, 2L, 3L, 4L }, list.asLongArray());
+
+        list.merge(ImmutableList.of("text"));
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, list.asIntArray());
+        assertArrayEquals(new boolean[] { true, false }, new ListNode().merge(ImmutableList.of(true, "false")).asBooleanArray());
+
+        // Element changes clear the cached arrays
+        list.get(0).setValue(5);
+        assertArrayEquals(new int[] { 5, 2, 3, 4 }, list.asIntArray());
+
+        // Iterator and sub list changes also clear the cached arrays
+        final Iterator<SettingsNode> iterator = list.iterator();
+        iterator.next();
+        iterator.remove();
+        assertArrayEquals(new int[] { 2, 3, 4 }, list.asIntArray());
+        final ListIterator<SettingsNode> listIterator = list.listIterator(1);
+        listIterator.next();
+        listIterator.set(NodeValue.of(6));
+        listIterator.add(NodeValue.of(7));
+        assertArrayEquals(new int[] { 2, 6, 7, 4 }, list.asIntArray());
+        list.subList(0, 2).clear();
+        assertArrayEquals(new int[] { 7, 4 }, list.asIntArray());
+        assertEquals(ImmutableList.of(7, "4", "text"), list.asLiteralObject());
+    }
+
+    @Test
+    public void testConversion() {
+        assertEquals(TimeUnit.SECONDS, NodeValue.of("SECONDS").asEnum(TimeUnit.class));
+        assertEquals(TimeUnit.SECONDS, NodeValue.of("seconds").asEnum(TimeUnit.class));
+        assertEquals(TimeUnit.DAYS, NodeValue.of(TimeUnit.DAYS).asEnum(TimeUnit.class, TimeUnit.values()));
+        assertNull(NodeValue.of("weeks").asEnum(TimeUnit.class));
+
+        assertEquals(1234, NodeValue.of("1234").as(Integer.class));
+        assertEquals("1234", NodeValue.of("1234").as(String.class));
+        assertEquals(12.0, NodeValue.of(12).as(Double.class));
+        assertEquals(12L, NodeValue.of(12.5).as(Long.class));
+        assertEquals("12", NodeValue.of(12).as(String.class));
+        assertEquals(TimeUnit.MINUTES, NodeValue.of("minutes").as(TimeUnit.class));
+    }
+
+    @Test
+    public void testComment() {
+        final SettingsNode node = NodeValue.of("value");
+        assertNull(node.getTopComment());
+        assertNull(node.getSideComment());
+        assertFalse(node.hasTopComment());
+
+        final List<String> lines = new ArrayList<>(ImmutableList.of("first", "second"));
+        node.setTopComment(lines);
+        lines.add("third");
+        assertTrue(node.hasTopComment());
+        assertFalse(node.hasSideComment());
+        assertEquals(ImmutableList.of("first", "second"), node.getTopComment());
+        assertThrows(UnsupportedOperationException.class, () -> node.getTopComment().add("third"));
+
+        node.addTopComment(ImmutableList.of("third"));
+        node.setSideComment(ImmutableList.of("side"));
+        assertEquals(ImmutableList.of("first", "second", "third"), node.getTopComment());
+        assertEquals(ImmutableList.of("side"), node.getSideComment());
+
+        // Comments are shared on merge
+        final SettingsNode other = NodeValue.of("other").mergeComment(node);
+        assertSame(node.getTopComment(), other.getTopComment());
+        assertSame(node.getSideComment(), other.getSideComment());
+
+        node.setTopComment(null);
+        assertNull(node.getTopComment());
+        assertEquals(ImmutableList.of("side"), node.getSideComment());
+        node.setSideComment(null);
+        assertNull(node.getSideComment());
+    }
 }
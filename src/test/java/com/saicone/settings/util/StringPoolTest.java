@@ -0,0 +1,65 @@
+package com.saicone.settings.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StringPoolTest {
+
+    @Test
+    public void testIntern() {
+        final StringPool pool = new StringPool();
+        final String first = new String("value");
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(new String("value")));
+        assertSame(first, pool.internObject(new String("value")));
+        assertEquals(1234, pool.internObject(1234));
+        assertNull(pool.intern(null));
+        assertEquals(1, pool.size());
+
+        // Same instance is not counted as saved
+        pool.intern(first);
+        assertEquals(2, pool.getSavedStrings());
+        // String object plus a 5 bytes array, aligned to 8 bytes
+        assertEquals(2 * (24 + 24), pool.getSavedBytes());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getSavedStrings());
+        assertEquals(0, pool.getSavedBytes());
+    }
+
+    @Test
+    public void testBounds() {
+        final StringPool pool = new StringPool(16, 8);
+        final String large = new String("large string");
+        pool.intern(large);
+        assertNotSame(large, pool.intern(new String("large string")));
+        assertEquals(0, pool.size());
+
+        for (int i = 0; i < 1000; i++) {
+            pool.intern("key" + i);
+        }
+        assertTrue(pool.size() > 0);
+        assertTrue(pool.size() <= 16);
+    }
+
+    @Test
+    public void testWeakEviction() throws InterruptedException {
+        final StringPool pool = new StringPool();
+        final String kept = pool.intern(new String("kept"));
+        pool.intern(new String("evicted"));
+        assertEquals(2, pool.size());
+
+        for (int i = 0; i < 100 && pool.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.size());
+        assertSame(kept, pool.intern(new String("kept")));
+    }
+}